@@ -4,6 +4,7 @@ import net.gegy1000.earth.server.ServerProxy;
 import net.gegy1000.earth.server.capability.EarthCapability;
 import net.gegy1000.earth.server.world.CoverDebugWorldType;
 import net.gegy1000.earth.server.world.EarthWorldType;
+import net.gegy1000.earth.server.world.cover.EarthCoverTypes;
 import net.gegy1000.earth.server.world.pipeline.source.EarthRemoteData;
 import net.gegy1000.earth.server.world.pipeline.source.SrtmHeightSource;
 import net.gegy1000.terrarium.server.capability.BlankStorage;
@@ -46,6 +47,8 @@ public class TerrariumEarth {
         CapabilityManager.INSTANCE.register(EarthCapability.class, new BlankStorage<>(), EarthCapability.Impl.class);
         PROXY.onPreInit();
 
+        EarthCoverTypes.register();
+
         Thread thread = new Thread(() -> {
             EarthRemoteData.loadInfo();
             SrtmHeightSource.loadValidTiles();
@@ -8,6 +8,7 @@ import net.gegy1000.earth.server.world.cover.EarthCoverTypes;
 import net.gegy1000.earth.server.world.pipeline.EarthComponentTypes;
 import net.gegy1000.earth.server.world.pipeline.adapter.OsmCoastlineAdapter;
 import net.gegy1000.earth.server.world.pipeline.adapter.WaterCarveAdapter;
+import net.gegy1000.earth.server.world.pipeline.adapter.WaterFlattenAdapter;
 import net.gegy1000.earth.server.world.pipeline.adapter.WaterLevelingAdapter;
 import net.gegy1000.earth.server.world.pipeline.composer.BoulderDecorationComposer;
 import net.gegy1000.earth.server.world.pipeline.composer.WaterFillSurfaceComposer;
@@ -17,7 +18,7 @@ import net.gegy1000.earth.server.world.pipeline.layer.WaterPopulatorLayer;
 import net.gegy1000.earth.server.world.pipeline.source.GlobcoverSource;
 import net.gegy1000.earth.server.world.pipeline.source.SrtmHeightSource;
 import net.gegy1000.earth.server.world.pipeline.source.osm.OverpassSource;
-import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmRegionTile;
 import net.gegy1000.earth.server.world.pipeline.source.tile.WaterRasterTile;
 import net.gegy1000.terrarium.server.capability.TerrariumWorldData;
 import net.gegy1000.terrarium.server.util.Interpolation;
@@ -47,12 +48,14 @@ import net.gegy1000.terrarium.server.world.pipeline.MergeDataLayer;
 import net.gegy1000.terrarium.server.world.pipeline.TerrariumDataProvider;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.BeachAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.HeightTransformAdapter;
+import net.gegy1000.terrarium.server.world.pipeline.adapter.WaterDistanceAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.composer.biome.CoverBiomeComposer;
 import net.gegy1000.terrarium.server.world.pipeline.composer.decoration.CoverDecorationComposer;
 import net.gegy1000.terrarium.server.world.pipeline.composer.surface.BedrockSurfaceComposer;
 import net.gegy1000.terrarium.server.world.pipeline.composer.surface.CoverSurfaceComposer;
 import net.gegy1000.terrarium.server.world.pipeline.composer.surface.HeightmapSurfaceComposer;
+import net.gegy1000.terrarium.server.world.pipeline.layer.ConstantShortProducer;
 import net.gegy1000.terrarium.server.world.pipeline.layer.CoverTileSampleLayer;
 import net.gegy1000.terrarium.server.world.pipeline.layer.ScaledByteLayer;
 import net.gegy1000.terrarium.server.world.pipeline.layer.ScaledCoverLayer;
@@ -93,6 +96,7 @@ public class EarthWorldType extends TerrariumWorldType {
     public static final PropertyKey<Number> HEIGHT_ORIGIN = PropertyKey.createNumber("height_origin");
     public static final PropertyKey<Number> OCEAN_DEPTH = PropertyKey.createNumber("ocean_depth");
     public static final PropertyKey<Number> BEACH_SIZE = PropertyKey.createNumber("beach_size");
+    public static final PropertyKey<Number> RIVER_LEVEL_RANGE = PropertyKey.createNumber("river_level_range");
     public static final PropertyKey<Boolean> ENABLE_BUILDINGS = PropertyKey.createBoolean("enable_buildings");
     public static final PropertyKey<Boolean> ENABLE_STREETS = PropertyKey.createBoolean("enable_streets");
     public static final PropertyKey<Boolean> ENABLE_VANILLA_FEATURES = PropertyKey.createBoolean("enable_vanilla_features");
@@ -117,7 +121,8 @@ public class EarthWorldType extends TerrariumWorldType {
                         new SliderWidget(NOISE_SCALE, 0.0, 3.0, 0.5, 0.1),
                         new SliderWidget(OCEAN_DEPTH, 0, 32, 1, 1),
                         new SliderWidget(HEIGHT_ORIGIN, -127, 128, 1, 1),
-                        new SliderWidget(BEACH_SIZE, 0, 8, 1, 1)
+                        new SliderWidget(BEACH_SIZE, 0, 8, 1, 1),
+                        new SliderWidget(RIVER_LEVEL_RANGE, 0, 32, 1, 1)
                 )
                 .withCategory("features",
                         new ToggleWidget(ENABLE_DECORATION),
@@ -199,7 +204,7 @@ public class EarthWorldType extends TerrariumWorldType {
 
             DataLayerProducer<ShortRasterTile> heightProducer = this.createHeightProducer(heightSampler);
             DataLayerProducer<CoverRasterTile> coverProducer = this.createCoverProducer();
-            DataLayerProducer<OsmTile> osmProducer = this.createOsmProducer();
+            DataLayerProducer<OsmRegionTile> osmProducer = this.createOsmProducer();
             DataLayerProducer<WaterRasterTile> waterProducer = new WaterPopulatorLayer(coverProducer, heightProducer);
 
             return TerrariumDataProvider.builder()
@@ -207,15 +212,17 @@ public class EarthWorldType extends TerrariumWorldType {
                     .withComponent(RegionComponentType.SLOPE, this.createSlopeProducer(heightSampler))
                     .withComponent(RegionComponentType.COVER, coverProducer)
                     .withComponent(EarthComponentTypes.OSM, osmProducer)
-                    .withComponent(EarthComponentTypes.WATER, waterProducer)
+                    .withComponent(EarthComponentTypes.WATER, waterProducer, RegionComponentType.HEIGHT, RegionComponentType.COVER)
+                    .withComponent(RegionComponentType.WATER_DISTANCE, new ConstantShortProducer(Short.MAX_VALUE))
                     .withAdapter(new OsmCoastlineAdapter(this.earthCoordinates, EarthComponentTypes.OSM, EarthComponentTypes.WATER, RegionComponentType.HEIGHT, RegionComponentType.COVER))
+                    .withAdapter(new WaterDistanceAdapter(RegionComponentType.COVER, RegionComponentType.WATER_DISTANCE, EarthCoverTypes.WATER))
 //                    .withAdapter(new HeightNoiseAdapter(this.world, RegionComponentType.HEIGHT, 2, 0.08, this.properties.getDouble(NOISE_SCALE)))
                     .withAdapter(new HeightTransformAdapter(RegionComponentType.HEIGHT, this.properties.getDouble(HEIGHT_SCALE) * this.worldScale, heightOrigin))
-                    .withAdapter(new WaterLevelingAdapter(EarthComponentTypes.WATER, RegionComponentType.HEIGHT, heightOrigin + 1))
-                    .withAdapter(new WaterCarveAdapter(EarthComponentTypes.WATER, RegionComponentType.HEIGHT, this.properties.getInteger(OCEAN_DEPTH)))
+                    .withAdapter(new WaterFlattenAdapter(RegionComponentType.HEIGHT, RegionComponentType.COVER, 15, EarthCoverTypes.WATER))
+                    .withAdapter(new WaterLevelingAdapter(EarthComponentTypes.WATER, RegionComponentType.HEIGHT, heightOrigin + 1, this.getRiverLevelRange()))
+                    .withAdapter(new WaterCarveAdapter(EarthComponentTypes.WATER, RegionComponentType.WATER_DISTANCE, RegionComponentType.HEIGHT, this.properties.getInteger(OCEAN_DEPTH)))
 //                    .withAdapter(new OceanDepthCorrectionAdapter(RegionComponentType.HEIGHT, this.properties.getInteger(OCEAN_DEPTH)))
-                    .withAdapter(new BeachAdapter(this.world, RegionComponentType.COVER, this.properties.getInteger(BEACH_SIZE), EarthCoverTypes.WATER, EarthCoverTypes.BEACH))
-//                    .withAdapter(new WaterFlattenAdapter(RegionComponentType.HEIGHT, RegionComponentType.COVER, 15, EarthCoverTypes.WATER))
+                    .withAdapter(new BeachAdapter(this.world, RegionComponentType.COVER, RegionComponentType.WATER_DISTANCE, this.properties.getInteger(BEACH_SIZE), EarthCoverTypes.BEACH))
                     .build();
         }
 
@@ -237,7 +244,7 @@ public class EarthWorldType extends TerrariumWorldType {
             return layer;
         }
 
-        private DataLayerProducer<OsmTile> createOsmProducer() {
+        private DataLayerProducer<OsmRegionTile> createOsmProducer() {
             List<OverpassSource> sources = new ArrayList<>();
             sources.add(new OverpassSource(
                     this.earthCoordinates,
@@ -261,18 +268,18 @@ public class EarthWorldType extends TerrariumWorldType {
                     2
             ));
 
-            List<DataLayerProducer<OsmTile>> samplers = sources.stream()
+            List<DataLayerProducer<OsmRegionTile>> samplers = sources.stream()
                     .filter(OverpassSource::shouldSample)
                     .map(overpassSource -> new OsmSampleLayer(overpassSource, this.earthCoordinates))
                     .collect(Collectors.toList());
 
             if (!samplers.isEmpty()) {
-                DataLayerProducer<OsmTile> layer = MergeDataLayer.from(samplers);
+                DataLayerProducer<OsmRegionTile> layer = MergeDataLayer.from(samplers);
                 layer = DataLayer.of(new OsmPopulatorLayer(), layer);
                 return layer;
             }
 
-            return DataSource.from(view -> new OsmTile());
+            return DataSource.from(view -> new OsmRegionTile());
         }
 
         private Interpolation.Method selectInterpolationMethod(PropertyContainer properties) {
@@ -287,5 +294,12 @@ public class EarthWorldType extends TerrariumWorldType {
 
             return interpolationMethod;
         }
+
+        private int getRiverLevelRange() {
+            if (this.properties.hasKey(RIVER_LEVEL_RANGE)) {
+                return this.properties.getInteger(RIVER_LEVEL_RANGE);
+            }
+            return WaterLevelingAdapter.DEFAULT_LEVEL_RANGE;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package net.gegy1000.earth.server.world.cover;
 
 import it.unimi.dsi.fastutil.bytes.Byte2ObjectArrayMap;
+import net.gegy1000.earth.TerrariumEarth;
 import net.gegy1000.earth.server.world.cover.type.BareCover;
 import net.gegy1000.earth.server.world.cover.type.BeachCover;
 import net.gegy1000.earth.server.world.cover.type.BroadleafEvergreenCover;
@@ -25,6 +26,8 @@ import net.gegy1000.earth.server.world.cover.type.UrbanCover;
 import net.gegy1000.earth.server.world.cover.type.VegetationWithCroplandCover;
 import net.gegy1000.earth.server.world.cover.type.WaterCover;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
+import net.minecraft.util.ResourceLocation;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -82,6 +85,32 @@ public class EarthCoverTypes {
         COVER_TYPES.add(WATER);
     }
 
+    public static void register() {
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "bare"), BARE);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "beach"), BEACH);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "broadleaf_evergreen"), BROADLEAF_EVERGREEN);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "closed_broadleaf_deciduous"), CLOSED_BROADLEAF_DECIDUOUS);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "closed_needleleaf_evergreen"), CLOSED_NEEDLELEAF_EVERGREEN);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "cropland_with_vegetation"), CROPLAND_WITH_VEGETATION);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "flooded_grassland"), FLOODED_GRASSLAND);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "forest_shrubland_with_grass"), FOREST_SHRUBLAND_WITH_GRASS);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "fresh_flooded_forest"), FRESH_FLOODED_FOREST);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "grassland"), GRASSLAND);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "grass_with_forest_shrubland"), GRASS_WITH_FOREST_SHRUBLAND);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "irrigated_crops"), IRRIGATED_CROPS);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "mixed_broad_needleleaf"), MIXED_BROAD_NEEEDLELEAF);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "open_broadleaf_deciduous"), OPEN_BROADLEAF_DECIDUOUS);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "open_needleleaf"), OPEN_NEEDLELEAF);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "rainfed_crops"), RAINFED_CROPS);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "saline_flooded_forest"), SALINE_FLOODED_FOREST);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "shrubland"), SHRUBLAND);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "snow"), SNOW);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "sparse_vegetation"), SPARSE_VEGETATION);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "urban"), URBAN);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "vegetation_with_cropland"), VEGETATION_WITH_CROPLAND);
+        CoverTypeRegistry.register(new ResourceLocation(TerrariumEarth.MODID, "water"), WATER);
+    }
+
     public enum Glob {
         IRRIGATED_CROPS(11, EarthCoverTypes.IRRIGATED_CROPS),
         RAINFED_CROPS(14, EarthCoverTypes.RAINFED_CROPS),
@@ -1,23 +1,43 @@
 package net.gegy1000.earth.server.world.pipeline;
 
 import net.gegy1000.earth.TerrariumEarth;
-import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmRegionTile;
 import net.gegy1000.earth.server.world.pipeline.source.tile.WaterRasterTile;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
+import net.gegy1000.terrarium.server.world.pipeline.component.SerializableComponentType;
 import net.minecraft.util.ResourceLocation;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class EarthComponentTypes {
-    public static final RegionComponentType<OsmTile> OSM = new RegionComponentType<OsmTile>(new ResourceLocation(TerrariumEarth.MODID, "osm"), OsmTile.class) {
+    public static final RegionComponentType<OsmRegionTile> OSM = new RegionComponentType<OsmRegionTile>(new ResourceLocation(TerrariumEarth.MODID, "osm"), OsmRegionTile.class) {
         @Override
-        public OsmTile createDefaultData(int width, int height) {
-            return new OsmTile();
+        public OsmRegionTile createDefaultData(int width, int height) {
+            return new OsmRegionTile();
+        }
+
+        @Override
+        public boolean isTransient() {
+            return true;
         }
     };
 
-    public static final RegionComponentType<WaterRasterTile> WATER = new RegionComponentType<WaterRasterTile>(new ResourceLocation(TerrariumEarth.MODID, "water"), WaterRasterTile.class) {
+    public static final SerializableComponentType<WaterRasterTile> WATER = new SerializableComponentType<WaterRasterTile>(new ResourceLocation(TerrariumEarth.MODID, "water"), WaterRasterTile.class) {
         @Override
         public WaterRasterTile createDefaultData(int width, int height) {
             return new WaterRasterTile(new short[width * height], width, height);
         }
+
+        @Override
+        public void write(WaterRasterTile data, DataOutput output) throws IOException {
+            SerializableComponentType.writeShorts(output, data.getShortData());
+        }
+
+        @Override
+        public WaterRasterTile read(DataInput input, int width, int height) throws IOException {
+            return new WaterRasterTile(SerializableComponentType.readShorts(input, width * height), width, height);
+        }
     };
 }
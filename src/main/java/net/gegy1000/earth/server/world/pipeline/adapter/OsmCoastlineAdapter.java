@@ -1,75 +1,39 @@
 package net.gegy1000.earth.server.world.pipeline.adapter;
 
-import com.vividsolutions.jts.geom.LineString;
-import com.vividsolutions.jts.geom.Point;
-import de.topobyte.osm4j.core.model.iface.OsmWay;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.floats.FloatList;
 import net.gegy1000.earth.server.world.cover.EarthCoverTypes;
-import net.gegy1000.earth.server.world.pipeline.source.osm.OsmDataParser;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmRegionTile;
 import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
 import net.gegy1000.earth.server.world.pipeline.source.tile.WaterRasterTile;
-import net.gegy1000.terrarium.server.util.FloodFill;
-import net.gegy1000.terrarium.server.util.Interpolation;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.coordinate.CoordinateState;
-import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
-import net.gegy1000.terrarium.server.world.pipeline.adapter.debug.DebugImageWriter;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 import net.minecraft.util.math.MathHelper;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 public class OsmCoastlineAdapter implements RegionAdapter {
-    private static final int TYPE_MASK = 0b11;
-    private static final int FLAGS_MASK = ~TYPE_MASK;
-
-    private static final int WATER = 0b0;
-    private static final int LAND = 0b1;
-    private static final int COAST = 0b10;
-
-    private static final int COAST_UP_FLAG = 0b100;
-    private static final int COAST_DOWN_FLAG = 0b1000;
-    private static final int FREE_FLOOD_FLAG = 0b100000;
-
-    private static final DebugImageWriter.ColorSelector<Integer> COASTLINE_DEBUG = value -> {
-        if ((value & FREE_FLOOD_FLAG) != 0) {
-            return 0x404040;
-        } else if ((value & COAST_UP_FLAG) != 0) {
-            return 0xFF0000;
-        } else if ((value & COAST_DOWN_FLAG) != 0) {
-            return 0xFFFF00;
-        }
-        int type = value & TYPE_MASK;
-        switch (type) {
-            case WATER:
-                return 0x0000FF;
-            case LAND:
-                return 0x00FF00;
-            case COAST:
-                return 0xFFFFFF;
-        }
-        return 0;
-    };
+    private static final byte UNCLASSIFIED = -1;
+    private static final byte WATER = 0;
+    private static final byte LAND = 1;
+    private static final byte CONVERTED_LAND = 2;
 
     private final CoordinateState latLngCoordinateState;
-    private final RegionComponentType<OsmTile> osmComponent;
+    private final RegionComponentType<OsmRegionTile> osmComponent;
     private final RegionComponentType<WaterRasterTile> waterComponent;
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final RegionComponentType<CoverRasterTile> coverComponent;
 
-    public OsmCoastlineAdapter(CoordinateState latLngCoordinateState, RegionComponentType<OsmTile> osmComponent, RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, RegionComponentType<CoverRasterTile> coverComponent) {
+    public OsmCoastlineAdapter(CoordinateState latLngCoordinateState, RegionComponentType<OsmRegionTile> osmComponent, RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, RegionComponentType<CoverRasterTile> coverComponent) {
         this.latLngCoordinateState = latLngCoordinateState;
         this.osmComponent = osmComponent;
         this.waterComponent = waterComponent;
@@ -79,226 +43,173 @@ public class OsmCoastlineAdapter implements RegionAdapter {
 
     @Override
     public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
-        OsmTile osmTile = data.getOrExcept(this.osmComponent);
+        OsmRegionTile osmTile = data.getOrExcept(this.osmComponent);
+
+        FloatList edges = new FloatArrayList();
+        osmTile.forEachWayWithTag("natural", "coastline", (tile, way) -> this.collectEdges(x, z, tile, way, edges));
 
-        List<OsmWay> coastlines = osmTile.getWays().valueCollection().stream()
-                .filter(way -> OsmDataParser.hasTag(way, "natural", "coastline"))
-                .collect(Collectors.toList());
+        if (!edges.isEmpty()) {
+            byte[] coastMap = new byte[width * height];
+            Arrays.fill(coastMap, UNCLASSIFIED);
+            float[] crossingDistance = new float[width * height];
+            Arrays.fill(crossingDistance, Float.POSITIVE_INFINITY);
+
+            float[] edgeData = edges.toFloatArray();
+            this.scanCrossings(edgeData, width, height, false, coastMap, crossingDistance);
+            this.scanCrossings(edgeData, width, height, true, coastMap, crossingDistance);
 
-        if (!coastlines.isEmpty()) {
             WaterRasterTile waterTile = data.getOrExcept(this.waterComponent);
             ShortRasterTile heightTile = data.getOrExcept(this.heightComponent);
             CoverRasterTile coverTile = data.getOrExcept(this.coverComponent);
-            short[] waterBuffer = waterTile.getShortData();
-
-            int[] coastMap = new int[width * height];
-
-            for (int i = 0; i < coastMap.length; i++) {
-                coastMap[i] = waterBuffer[i] == WaterRasterTile.LAND ? LAND : WATER;
-            }
-
-            for (OsmWay coastline : coastlines) {
-                List<Point> linePoints = this.collectLinePoints(OsmDataParser.createLines(osmTile, coastline));
-                this.rasterizeLine(x, z, width, height, coastMap, linePoints);
-            }
-
-            this.removeProblematicPoints(width, height, coastMap);
-
-            this.floodCoastMap(width, height, coastMap);
-            this.applyFloodedMap(width, height, waterTile, heightTile.getShortData(), coverTile.getData(), coastMap);
-        }
-    }
-
-    private List<Point> collectLinePoints(List<LineString> lines) {
-        List<Point> linePoints = new LinkedList<>();
-        for (LineString line : lines) {
-            for (int i = 0; i < line.getNumPoints(); i++) {
-                linePoints.add(line.getPointN(i));
-            }
+            this.applyCoastMap(width, height, waterTile, heightTile.getShortData(), coverTile.getCoverIds(), coastMap);
         }
-        return linePoints;
     }
 
-    private void rasterizeLine(int x, int y, int width, int height, int[] coastMap, List<Point> line) {
-        for (int nodeIndex = 1; nodeIndex < line.size(); nodeIndex++) {
-            Point current = line.get(nodeIndex - 1);
-            Point next = line.get(nodeIndex);
-
-            Coordinate currentCoordinate = new Coordinate(this.latLngCoordinateState, current.getX(), current.getY());
-
-            double originX = currentCoordinate.getBlockX();
-            double originY = currentCoordinate.getBlockZ();
-
-            double minStep = 3.0;
-            Coordinate nextCoordinate = new Coordinate(this.latLngCoordinateState, next.getX(), next.getY());
-            while (Math.abs(nextCoordinate.getBlockX() - originX) < minStep && Math.abs(nextCoordinate.getBlockZ() - originY) < minStep && ++nodeIndex < line.size()) {
-                Point node = line.get(nodeIndex);
-                nextCoordinate = new Coordinate(this.latLngCoordinateState, node.getX(), node.getY());
-            }
-
-            double targetX = nextCoordinate.getBlockX();
-            double targetY = nextCoordinate.getBlockZ();
-
-            int coastType = this.selectCoastType(currentCoordinate, nextCoordinate);
-            this.rasterizeLineSegment(x, y, width, height, coastMap, originX, originY, targetX, targetY, coastType);
-        }
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.osmComponent);
     }
 
-    private int selectCoastType(Coordinate currentCoordinate, Coordinate nextCoordinate) {
-        int nextBlockZ = MathHelper.floor(nextCoordinate.getBlockZ());
-        int currentBlockZ = MathHelper.floor(currentCoordinate.getBlockZ());
-        if (nextBlockZ > currentBlockZ) {
-            return COAST | COAST_DOWN_FLAG;
-        } else if (nextBlockZ < currentBlockZ) {
-            return COAST | COAST_UP_FLAG;
-        }
-        return COAST;
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.waterComponent, this.heightComponent, this.coverComponent);
     }
 
-    private void rasterizeLineSegment(int x, int y, int width, int height, int[] coastMap, double originX, double originY, double targetX, double targetY, int coastType) {
-        List<FloodFill.Point> points = new ArrayList<>();
-        Interpolation.interpolateLine(originX, originY, targetX, targetY, false, point -> {
-            int localX = point.x - x;
-            int localY = point.y - y;
-            if (localX >= 0 && localY >= 0 && localX < width && localY < height) {
-                this.freeNeighbors(width, height, coastMap, localX, localY);
-                points.add(new FloodFill.Point(localX, localY));
-            }
-        });
-
-        if (this.isFillingCoastType(coastType) && points.size() > 2) {
-            for (int i = 0; i < points.size(); i++) {
-                FloodFill.Point point = points.get(i);
-                int index = point.getX() + point.getY() * width;
-                if (i < 1 && i >= points.size() - 1 || (coastMap[index] & TYPE_MASK) == COAST) {
-                    coastMap[index] = COAST;
-                } else {
-                    coastMap[index] = coastType;
-                }
+    private void collectEdges(int x, int z, OsmTile tile, int way, FloatList edges) {
+        float lastX = Float.NaN;
+        float lastZ = Float.NaN;
+        for (int i = 0; i < tile.getWayNodeCount(way); i++) {
+            int node = tile.getWayNodeIndex(way, i);
+            if (node == -1) {
+                // Missing nodes split the way, matching partially built geometry
+                lastX = Float.NaN;
+                lastZ = Float.NaN;
+                continue;
             }
-        } else {
-            for (FloodFill.Point point : points) {
-                int index = point.getX() + point.getY() * width;
-                coastMap[index] = COAST;
+            Coordinate coordinate = new Coordinate(this.latLngCoordinateState, tile.getNodeLongitude(node), tile.getNodeLatitude(node));
+            float localX = (float) (coordinate.getBlockX() - x);
+            float localZ = (float) (coordinate.getBlockZ() - z);
+            if (!Float.isNaN(lastX) && (localX != lastX || localZ != lastZ)) {
+                edges.add(lastX);
+                edges.add(lastZ);
+                edges.add(localX);
+                edges.add(localZ);
             }
+            lastX = localX;
+            lastZ = localZ;
         }
     }
 
-    private void freeNeighbors(int width, int height, int[] coastMap, int localX, int localY) {
-        this.iterateNeighbours(localX, localY, width, height, true, neighborIndex -> {
-            int sample = coastMap[neighborIndex];
-            if ((sample & TYPE_MASK) != COAST) {
-                coastMap[neighborIndex] = sample | FREE_FLOOD_FLAG;
+    private void scanCrossings(float[] edges, int width, int height, boolean columns, byte[] coastMap, float[] crossingDistance) {
+        int lineCount = columns ? width : height;
+        int lineLength = columns ? height : width;
+
+        // Each line is sampled through the pixel centres, with crossings counted on a half-open range so shared vertices are only hit once
+        int[] offsets = new int[lineCount + 1];
+        for (int edge = 0; edge < edges.length; edge += 4) {
+            float fromA = columns ? edges[edge] : edges[edge + 1];
+            float toA = columns ? edges[edge + 2] : edges[edge + 3];
+            int minLine = Math.max(MathHelper.ceil(Math.min(fromA, toA) - 0.5F), 0);
+            int maxLine = Math.min(MathHelper.ceil(Math.max(fromA, toA) - 0.5F), lineCount);
+            for (int line = minLine; line < maxLine; line++) {
+                offsets[line + 1]++;
             }
-        });
-    }
-
-    private void removeProblematicPoints(int width, int height, int[] coastMap) {
-        for (int localY = 0; localY < height; localY++) {
-            for (int localX = 0; localX < width; localX++) {
-                int index = localX + localY * width;
-                int coastType = coastMap[index];
+        }
 
-                if (this.isFillingCoastType(coastType)) {
-                    this.iterateNeighbours(localX, localY, width, height, false, neighbourIndex -> {
-                        int neighbourType = coastMap[neighbourIndex];
+        for (int line = 0; line < lineCount; line++) {
+            offsets[line + 1] += offsets[line];
+        }
 
-                        if (this.isFillingCoastType(neighbourType) && this.areDifferentDirection(coastType, neighbourType)) {
-                            coastMap[neighbourIndex] = COAST;
-                            coastMap[index] = COAST;
-                        }
-                    });
-                }
+        float[] positions = new float[offsets[lineCount]];
+        boolean[] landBefore = new boolean[offsets[lineCount]];
+        int[] cursors = Arrays.copyOf(offsets, lineCount);
+
+        for (int edge = 0; edge < edges.length; edge += 4) {
+            float fromA = columns ? edges[edge] : edges[edge + 1];
+            float fromB = columns ? edges[edge + 1] : edges[edge];
+            float toA = columns ? edges[edge + 2] : edges[edge + 3];
+            float toB = columns ? edges[edge + 3] : edges[edge + 2];
+            int minLine = Math.max(MathHelper.ceil(Math.min(fromA, toA) - 0.5F), 0);
+            int maxLine = Math.min(MathHelper.ceil(Math.max(fromA, toA) - 0.5F), lineCount);
+
+            // Coastlines keep land on their left: heading north puts land to the west, heading east puts land to the north
+            boolean edgeLandBefore = columns ? toA > fromA : toA < fromA;
+            float slope = (toB - fromB) / (toA - fromA);
+            for (int line = minLine; line < maxLine; line++) {
+                int crossing = cursors[line]++;
+                positions[crossing] = fromB + (line + 0.5F - fromA) * slope;
+                landBefore[crossing] = edgeLandBefore;
             }
         }
-    }
 
-    private boolean isFillingCoastType(int coastType) {
-        return (coastType & TYPE_MASK) == COAST && ((coastType & COAST_UP_FLAG) != 0 || (coastType & COAST_DOWN_FLAG) != 0);
-    }
+        for (int line = 0; line < lineCount; line++) {
+            int start = offsets[line];
+            int end = offsets[line + 1];
+            if (start == end) {
+                continue;
+            }
 
-    private boolean areDifferentDirection(int leftCoastType, int rightCoastType) {
-        boolean differentUp = ((leftCoastType & COAST_UP_FLAG) != 0) ^ ((rightCoastType & COAST_UP_FLAG) != 0);
-        boolean differentDown = ((leftCoastType & COAST_DOWN_FLAG) != 0) ^ ((rightCoastType & COAST_DOWN_FLAG) != 0);
-        return differentUp && differentDown;
-    }
+            this.sortCrossings(positions, landBefore, start, end);
 
-    private void iterateNeighbours(int originX, int originY, int width, int height, boolean corners, Consumer<Integer> neighbourIndex) {
-        for (int neighbourY = -1; neighbourY <= 1; neighbourY++) {
-            for (int neighbourX = -1; neighbourX <= 1; neighbourX++) {
-                if (neighbourX != 0 || neighbourY != 0) {
-                    if (corners || !this.isNeighbourCorner(neighbourX, neighbourY)) {
-                        int globalX = originX + neighbourX;
-                        int globalY = originY + neighbourY;
-                        if (globalX >= 0 && globalY >= 0 && globalX < width && globalY < height) {
-                            int index = globalX + globalY * width;
-                            neighbourIndex.accept(index);
-                        }
-                    }
+            int crossing = start;
+            for (int position = 0; position < lineLength; position++) {
+                float centre = position + 0.5F;
+                while (crossing < end && positions[crossing] <= centre) {
+                    crossing++;
                 }
-            }
-        }
-    }
 
-    private boolean isNeighbourCorner(int neighbourX, int neighbourY) {
-        return neighbourX != 0 && neighbourY != 0;
-    }
+                float distance = Float.POSITIVE_INFINITY;
+                byte type = UNCLASSIFIED;
+                if (crossing > start) {
+                    distance = centre - positions[crossing - 1];
+                    type = landBefore[crossing - 1] ? WATER : LAND;
+                }
+                if (crossing < end && positions[crossing] - centre < distance) {
+                    distance = positions[crossing] - centre;
+                    type = landBefore[crossing] ? LAND : WATER;
+                }
 
-    private void floodCoastMap(int width, int height, int[] coastMap) {
-        Object2IntMap<FloodFill.Point> floodSources = this.createFloodSources(width, height, coastMap);
-
-        for (Map.Entry<FloodFill.Point, Integer> entry : floodSources.entrySet()) {
-            FloodFill.Point point = entry.getKey();
-            int floodType = entry.getValue();
-            int sampled = coastMap[point.getX() + point.getY() * width];
-            if ((sampled & TYPE_MASK) != COAST) {
-                FillVisitor visitor = new FillVisitor(floodType);
-                if (visitor.canVisit(point, sampled)) {
-                    FloodFill.floodVisit(coastMap, width, height, point, visitor);
+                int index = columns ? line + position * width : position + line * width;
+                if (distance < crossingDistance[index]) {
+                    crossingDistance[index] = distance;
+                    coastMap[index] = type;
                 }
             }
         }
     }
 
-    private Object2IntMap<FloodFill.Point> createFloodSources(int width, int height, int[] coastMap) {
-        Object2IntMap<FloodFill.Point> floodSources = new Object2IntOpenHashMap<>();
-
-        for (int localY = 0; localY < height; localY++) {
-            for (int localX = 0; localX < width; localX++) {
-                int sampled = coastMap[localX + localY * width];
-                if (this.isFillingCoastType(sampled)) {
-                    if (localX > 0) {
-                        int left = (sampled & COAST_UP_FLAG) != 0 ? LAND : WATER;
-                        floodSources.put(new FloodFill.Point(localX - 1, localY), left);
-                    }
-                    if (localX < width - 1) {
-                        int right = (sampled & COAST_UP_FLAG) != 0 ? WATER : LAND;
-                        floodSources.put(new FloodFill.Point(localX + 1, localY), right);
-                    }
-                }
+    private void sortCrossings(float[] positions, boolean[] landBefore, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            float position = positions[i];
+            boolean land = landBefore[i];
+            int j = i - 1;
+            while (j >= start && positions[j] > position) {
+                positions[j + 1] = positions[j];
+                landBefore[j + 1] = landBefore[j];
+                j--;
             }
+            positions[j + 1] = position;
+            landBefore[j + 1] = land;
         }
-
-        return floodSources;
     }
 
-    private void applyFloodedMap(int width, int height, WaterRasterTile waterTile, short[] heightBuffer, CoverType[] coverBuffer, int[] coastMap) {
-        List<FloodFill.Point> unselectedPoints = new LinkedList<>();
+    private void applyCoastMap(int width, int height, WaterRasterTile waterTile, short[] heightBuffer, byte[] coverBuffer, byte[] coastMap) {
+        byte waterCover = (byte) CoverTypeRegistry.getId(EarthCoverTypes.WATER);
+
         for (int localY = 0; localY < height; localY++) {
             for (int localX = 0; localX < width; localX++) {
                 int index = localX + localY * width;
-                int sample = coastMap[index];
+                byte type = coastMap[index];
                 int waterType = waterTile.getWaterType(localX, localY);
-                int sampledType = sample & TYPE_MASK;
-                if (sampledType == WATER) {
+                if (type == WATER) {
                     if (waterType == WaterRasterTile.LAND) {
-                        coverBuffer[index] = EarthCoverTypes.WATER;
+                        coverBuffer[index] = waterCover;
                         waterTile.setWaterType(localX, localY, WaterRasterTile.OCEAN);
                     }
-                } else {
-                    if (waterType != WaterRasterTile.LAND) {
-                        coverBuffer[index] = TerrariumCoverTypes.PLACEHOLDER;
-                        unselectedPoints.add(new FloodFill.Point(localX, localY));
+                } else if (type == LAND) {
+                    // Rivers and lakes on the land side of the coast are kept, only sea that overshoots the coastline is filled
+                    if (waterType == WaterRasterTile.OCEAN) {
+                        coastMap[index] = CONVERTED_LAND;
                         waterTile.setWaterType(localX, localY, WaterRasterTile.LAND);
                         heightBuffer[index] = (short) Math.max(1, heightBuffer[index]);
                     }
@@ -306,63 +217,50 @@ public class OsmCoastlineAdapter implements RegionAdapter {
             }
         }
 
-        for (FloodFill.Point point : unselectedPoints) {
-            CoverSelectVisitor visitor = new CoverSelectVisitor();
-            FloodFill.floodVisit(coverBuffer, width, height, point, visitor);
-            coverBuffer[point.getX() + point.getY() * width] = visitor.getResult();
-        }
+        this.selectConvertedCover(width, height, coverBuffer, coastMap, waterCover);
     }
 
-    private class FillVisitor implements FloodFill.IntVisitor {
-        private final int floodType;
+    private void selectConvertedCover(int width, int height, byte[] coverBuffer, byte[] coastMap, byte waterCover) {
+        byte placeholderCover = (byte) CoverTypeRegistry.getId(TerrariumCoverTypes.PLACEHOLDER);
+        byte fallbackCover = (byte) CoverTypeRegistry.getId(EarthCoverTypes.RAINFED_CROPS);
 
-        private FillVisitor(int floodType) {
-            this.floodType = floodType;
-        }
-
-        @Override
-        public int visit(FloodFill.Point point, int sampled) {
-            if ((sampled & FREE_FLOOD_FLAG) != 0) {
-                return this.floodType | FREE_FLOOD_FLAG;
-            }
-            return this.floodType;
-        }
+        for (int localY = 0; localY < height; localY++) {
+            int rowIndex = localY * width;
 
-        @Override
-        public boolean canVisit(FloodFill.Point point, int sampled) {
-            if ((sampled & FREE_FLOOD_FLAG) != 0) {
-                return true;
-            }
-            int sampledType = sampled & TYPE_MASK;
-            if (sampledType == COAST) {
-                return false;
+            int last = -1;
+            for (int localX = 0; localX < width; localX++) {
+                int index = rowIndex + localX;
+                if (coastMap[index] == CONVERTED_LAND) {
+                    if (last != -1) {
+                        coverBuffer[index] = (byte) last;
+                        coastMap[index] = LAND;
+                    }
+                } else if (coverBuffer[index] != waterCover && coverBuffer[index] != placeholderCover) {
+                    last = coverBuffer[index] & 0xFF;
+                }
             }
-            return sampledType != (this.floodType & TYPE_MASK);
-        }
-    }
-
-    private class CoverSelectVisitor implements FloodFill.Visitor<CoverType> {
-        private CoverType result = null;
 
-        @Override
-        public CoverType visit(FloodFill.Point point, CoverType sampled) {
-            if (sampled != TerrariumCoverTypes.PLACEHOLDER) {
-                this.result = sampled;
-                return null;
+            last = -1;
+            for (int localX = width - 1; localX >= 0; localX--) {
+                int index = rowIndex + localX;
+                if (coastMap[index] == CONVERTED_LAND) {
+                    if (last != -1) {
+                        coverBuffer[index] = (byte) last;
+                        coastMap[index] = LAND;
+                    }
+                } else if (coverBuffer[index] != waterCover && coverBuffer[index] != placeholderCover) {
+                    last = coverBuffer[index] & 0xFF;
+                }
             }
-            return sampled;
-        }
 
-        @Override
-        public boolean canVisit(FloodFill.Point point, CoverType sampled) {
-            return sampled != EarthCoverTypes.WATER;
-        }
-
-        public CoverType getResult() {
-            if (this.result == null) {
-                return EarthCoverTypes.RAINFED_CROPS;
+            for (int localX = 0; localX < width; localX++) {
+                int index = rowIndex + localX;
+                if (coastMap[index] == CONVERTED_LAND) {
+                    byte above = localY > 0 ? coverBuffer[index - width] : waterCover;
+                    coverBuffer[index] = above != waterCover && above != placeholderCover ? above : fallbackCover;
+                    coastMap[index] = LAND;
+                }
             }
-            return this.result;
         }
     }
 }
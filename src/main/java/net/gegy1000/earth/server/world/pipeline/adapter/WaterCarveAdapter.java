@@ -1,38 +1,58 @@
 package net.gegy1000.earth.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.earth.server.world.pipeline.source.tile.WaterRasterTile;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
-import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
+import net.gegy1000.terrarium.server.world.pipeline.adapter.CellAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.RegionData;
+import net.minecraft.util.math.MathHelper;
 
-public class WaterCarveAdapter implements RegionAdapter {
+public class WaterCarveAdapter implements CellAdapter {
     private final RegionComponentType<WaterRasterTile> waterComponent;
+    private final RegionComponentType<ShortRasterTile> waterDistanceComponent;
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final int oceanDepth;
 
-    public WaterCarveAdapter(RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, int oceanDepth) {
+    public WaterCarveAdapter(RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> waterDistanceComponent, RegionComponentType<ShortRasterTile> heightComponent, int oceanDepth) {
         this.waterComponent = waterComponent;
+        this.waterDistanceComponent = waterDistanceComponent;
         this.heightComponent = heightComponent;
         this.oceanDepth = oceanDepth;
     }
 
     @Override
-    public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
-        WaterRasterTile waterTile = data.getOrExcept(this.waterComponent);
-        ShortRasterTile heightTile = data.getOrExcept(this.heightComponent);
+    public Operation prepare(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+        short[] waterBuffer = data.getOrExcept(this.waterComponent).getShortData();
+        short[] waterDistanceBuffer = data.getOrExcept(this.waterDistanceComponent).getShortData();
+        short[] heightBuffer = data.getOrExcept(this.heightComponent).getShortData();
+        int riverDepth = Math.min(this.oceanDepth, 4);
 
-        for (int localZ = 0; localZ < height; localZ++) {
-            for (int localX = 0; localX < width; localX++) {
-                int waterType = waterTile.getWaterType(localX, localZ);
+        return (fromIndex, toIndex) -> {
+            for (int index = fromIndex; index < toIndex; index++) {
+                int water = waterBuffer[index];
+                int waterType = water & WaterRasterTile.WATER_TYPE_MASK;
                 if (waterType != WaterRasterTile.LAND) {
-                    // TODO: Handle smooth edges
-                    int waterLevel = waterTile.getWaterLevel(localX, localZ);
-                    int depth = waterType == WaterRasterTile.OCEAN ? this.oceanDepth : Math.min(this.oceanDepth, 4);
-                    heightTile.setShort(localX, localZ, (short) (waterLevel - depth));
+                    int waterLevel = (water & WaterRasterTile.WATER_LEVEL_MASK) >> 2;
+                    int depth = waterType == WaterRasterTile.OCEAN ? this.oceanDepth : riverDepth;
+                    int landDistance = -waterDistanceBuffer[index];
+                    if (landDistance > 0) {
+                        depth = Math.min(depth, MathHelper.ceil(Math.sqrt(landDistance)));
+                    }
+                    heightBuffer[index] = (short) (waterLevel - depth);
                 }
             }
-        }
+        };
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.waterComponent, this.waterDistanceComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.heightComponent);
     }
 }
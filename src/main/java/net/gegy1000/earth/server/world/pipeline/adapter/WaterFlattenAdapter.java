@@ -1,8 +1,10 @@
 package net.gegy1000.earth.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
+import net.gegy1000.terrarium.server.util.ConnectedComponents;
 import net.gegy1000.terrarium.server.util.FloodFill;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
-import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
@@ -11,23 +13,25 @@ import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 import net.minecraft.util.math.MathHelper;
 
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 public class WaterFlattenAdapter implements RegionAdapter {
+    private static final int SOURCE_SPACING = 6;
+    private static final int FLAT_RADIUS = 5;
+
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final RegionComponentType<CoverRasterTile> coverComponent;
     private final int flattenRange;
 
-    private final CoverType waterCoverType;
+    private final byte waterCover;
+
+    private final ThreadLocal<Buffers> buffers = new ThreadLocal<>();
 
     public WaterFlattenAdapter(RegionComponentType<ShortRasterTile> heightComponent, RegionComponentType<CoverRasterTile> coverComponent, int flattenRange, CoverType waterCoverType) {
         this.heightComponent = heightComponent;
         this.coverComponent = coverComponent;
         this.flattenRange = flattenRange;
-        this.waterCoverType = waterCoverType;
+        this.waterCover = (byte) CoverTypeRegistry.getId(waterCoverType);
     }
 
     @Override
@@ -36,140 +40,126 @@ public class WaterFlattenAdapter implements RegionAdapter {
         CoverRasterTile coverTile = data.getOrExcept(this.coverComponent);
 
         short[] heightBuffer = heightTile.getShortData();
-        CoverType[] coverBuffer = coverTile.getData();
-
-        for (int localZ = 0; localZ < height; localZ++) {
-            for (int localX = 0; localX < width; localX++) {
-                if (coverBuffer[localX + localZ * width] == this.waterCoverType) {
-                    AverageCoverHeightVisitor visitor = new AverageCoverHeightVisitor(heightBuffer, width);
-                    FloodFill.floodVisit(coverBuffer, width, height, new FloodFill.Point(localX, localZ), visitor);
-
-                    List<FloodFill.Point> waterPoints = visitor.getVisitedPoints();
-                    if (!waterPoints.isEmpty()) {
-                        short averageHeight = visitor.getAverageHeight();
-                        this.flattenArea(waterPoints, averageHeight, heightBuffer, coverBuffer, width, height);
-                    }
-                }
-            }
+        byte[] coverBuffer = coverTile.getCoverIds();
+
+        Buffers buffers = this.buffers.get();
+        if (buffers == null || buffers.width != width || buffers.height != height) {
+            buffers = new Buffers(width, height);
+            this.buffers.set(buffers);
         }
 
-        for (int i = 0; i < coverBuffer.length; i++) {
-            if (coverBuffer[i] == TerrariumCoverTypes.PLACEHOLDER) {
-                coverBuffer[i] = this.waterCoverType;
-            }
+        List<ConnectedComponents.Component> components = buffers.connectedComponents.label(coverBuffer, this.waterCover, heightBuffer);
+        for (ConnectedComponents.Component component : components) {
+            this.flattenArea(buffers, ++buffers.sourceStamp, component.getIndices(), component.getAverageHeight(), heightBuffer, coverBuffer, width, height);
         }
     }
 
-    private void flattenArea(List<FloodFill.Point> waterPoints, short targetHeight, short[] heightBuffer, CoverType[] coverBuffer, int width, int height) {
-        Set<FloodFill.Point> sourcePoints = new HashSet<>();
-
-        for (FloodFill.Point point : waterPoints) {
-            int x = point.getX();
-            int z = point.getY();
-            int index = x + z * width;
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.heightComponent, this.coverComponent);
+    }
 
-            heightBuffer[index] = targetHeight;
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.heightComponent);
+    }
 
-            boolean canEffect = true;
-            for (FloodFill.Point sourcePoint : sourcePoints) {
-                if (Math.abs(point.getX() - sourcePoint.getX()) + Math.abs(point.getY() - sourcePoint.getY()) < 6) {
-                    canEffect = false;
-                    break;
-                }
+    private void flattenArea(Buffers buffers, int stamp, int[] waterIndices, short targetHeight, short[] heightBuffer, byte[] coverBuffer, int width, int height) {
+        // Water is only ever lowered, so the downstream end of a sloped river stays below its original banks
+        for (int index : waterIndices) {
+            if (heightBuffer[index] > targetHeight) {
+                heightBuffer[index] = targetHeight;
             }
+        }
+
+        // Sources are spaced out on a coarse grid so long shorelines don't flood the same land repeatedly
+        for (int index : waterIndices) {
+            int z = index / width;
+            int x = index - z * width;
 
-            if (canEffect && !this.isAlreadyFlattened(x, z, targetHeight, heightBuffer, width, height)
-                    && this.hasNeighbouringLand(x, z, coverBuffer, width, height)) {
-                sourcePoints.add(point);
-                AffectAreaVisitor visitor = new AffectAreaVisitor(point, this.flattenRange, targetHeight);
-                FloodFill.floodVisit(heightBuffer, width, height, point, visitor);
+            int sourceCell = x / SOURCE_SPACING + z / SOURCE_SPACING * buffers.sourceGridWidth;
+            if (buffers.sourceGrid[sourceCell] == stamp || !this.hasNeighbouringLand(x, z, coverBuffer, width, height)) {
+                continue;
             }
-        }
-    }
 
-    private boolean isAlreadyFlattened(int x, int z, short targetHeight, short[] heightBuffer, int width, int height) {
-        int index = x + z * width;
-        return (x <= 0 || Math.abs(heightBuffer[index - 1] - targetHeight) > 0)
-                && (x >= width - 1 || Math.abs(heightBuffer[index + 1] - targetHeight) > 0)
-                && (z <= 0 || Math.abs(heightBuffer[index - width] - targetHeight) > 0)
-                && (z >= height - 1 || Math.abs(heightBuffer[index + width] - targetHeight) > 0);
+            buffers.sourceGrid[sourceCell] = stamp;
+            AffectAreaVisitor visitor = new AffectAreaVisitor(x, z, this.flattenRange, targetHeight, coverBuffer, width);
+            buffers.floodFill.floodVisit(heightBuffer, x, z, visitor);
+        }
     }
 
-    private boolean hasNeighbouringLand(int x, int z, CoverType[] coverBuffer, int width, int height) {
+    private boolean hasNeighbouringLand(int x, int z, byte[] coverBuffer, int width, int height) {
         int index = x + z * width;
-        return (x > 0 && coverBuffer[index - 1] != TerrariumCoverTypes.PLACEHOLDER)
-                || (x < width - 1 && coverBuffer[index + 1] != TerrariumCoverTypes.PLACEHOLDER)
-                || (z > 0 && coverBuffer[index - width] != TerrariumCoverTypes.PLACEHOLDER)
-                || (z < height - 1 && coverBuffer[index + width] != TerrariumCoverTypes.PLACEHOLDER);
+        return (x > 0 && coverBuffer[index - 1] != this.waterCover)
+                || (x < width - 1 && coverBuffer[index + 1] != this.waterCover)
+                || (z > 0 && coverBuffer[index - width] != this.waterCover)
+                || (z < height - 1 && coverBuffer[index + width] != this.waterCover);
     }
 
-    private class AverageCoverHeightVisitor implements FloodFill.Visitor<CoverType> {
-        private final short[] heightBuffer;
+    private static class Buffers {
         private final int width;
+        private final int height;
 
-        private final List<FloodFill.Point> visitedPoints = new LinkedList<>();
+        private final ConnectedComponents connectedComponents;
+        private final FloodFill floodFill;
 
-        private long totalHeight;
+        private final int sourceGridWidth;
+        private final int[] sourceGrid;
+        private int sourceStamp;
 
-        private AverageCoverHeightVisitor(short[] heightBuffer, int width) {
-            this.heightBuffer = heightBuffer;
+        private Buffers(int width, int height) {
             this.width = width;
-        }
-
-        @Override
-        public CoverType visit(FloodFill.Point point, CoverType sampled) {
-            this.totalHeight += this.heightBuffer[point.getX() + point.getY() * this.width];
-            this.visitedPoints.add(point);
-            return TerrariumCoverTypes.PLACEHOLDER;
-        }
-
-        @Override
-        public boolean canVisit(FloodFill.Point point, CoverType sampled) {
-            return sampled == WaterFlattenAdapter.this.waterCoverType;
-        }
-
-        private short getAverageHeight() {
-            return (short) (this.totalHeight / this.visitedPoints.size());
-        }
-
-        private List<FloodFill.Point> getVisitedPoints() {
-            return this.visitedPoints;
+            this.height = height;
+            this.connectedComponents = new ConnectedComponents(width, height);
+            this.floodFill = new FloodFill(width, height);
+            this.sourceGridWidth = (width + SOURCE_SPACING - 1) / SOURCE_SPACING;
+            this.sourceGrid = new int[this.sourceGridWidth * ((height + SOURCE_SPACING - 1) / SOURCE_SPACING)];
         }
     }
 
     private class AffectAreaVisitor implements FloodFill.ShortVisitor {
-        private final FloodFill.Point origin;
+        private final int originX;
+        private final int originZ;
 
         private final int range;
+        private final int rangeSquared;
         private final short target;
 
-        private AffectAreaVisitor(FloodFill.Point origin, int range, short target) {
-            this.origin = origin;
+        private final byte[] coverBuffer;
+        private final int width;
 
-            this.range = range * range;
+        private AffectAreaVisitor(int originX, int originZ, int range, short target, byte[] coverBuffer, int width) {
+            this.originX = originX;
+            this.originZ = originZ;
+            this.range = range;
+            this.rangeSquared = range * range;
             this.target = target;
+            this.coverBuffer = coverBuffer;
+            this.width = width;
         }
 
         @Override
-        public short visit(FloodFill.Point point, short sampled) {
-            int deltaX = point.getX() - this.origin.getX();
-            int deltaZ = point.getY() - this.origin.getY();
-            double distance = deltaX * deltaX + deltaZ * deltaZ;
-            if (distance <= 5.0 * 5.0) {
+        public short visit(int x, int y, short sampled) {
+            if (this.coverBuffer[x + y * this.width] == WaterFlattenAdapter.this.waterCover) {
+                return sampled;
+            }
+            int deltaX = x - this.originX;
+            int deltaZ = y - this.originZ;
+            int distance = deltaX * deltaX + deltaZ * deltaZ;
+            if (distance <= FLAT_RADIUS * FLAT_RADIUS) {
                 return this.target;
             }
-            double scale = MathHelper.clamp(distance / this.range, 0.0, 1.0);
+            double scale = MathHelper.clamp((double) distance / this.rangeSquared, 0.0, 1.0);
             return (short) MathHelper.floor(this.target + (sampled - this.target) * scale);
         }
 
         @Override
-        public boolean canVisit(FloodFill.Point point, short sampled) {
-            if (Math.abs(sampled - this.target) > 0) {
+        public boolean canVisit(int x, int y, short sampled) {
+            // Only nearby land at a similar height is pulled towards the water surface
+            if (this.coverBuffer[x + y * this.width] == WaterFlattenAdapter.this.waterCover || Math.abs(sampled - this.target) > this.range) {
                 return false;
             }
-            int deltaX = Math.abs(point.getX() - this.origin.getX());
-            int deltaZ = Math.abs(point.getY() - this.origin.getY());
-            return deltaX <= this.range && deltaZ <= this.range;
+            return Math.abs(x - this.originX) <= this.range && Math.abs(y - this.originZ) <= this.range;
         }
     }
 }
@@ -1,23 +1,45 @@
 package net.gegy1000.earth.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.earth.server.world.pipeline.source.tile.WaterRasterTile;
+import net.gegy1000.terrarium.server.util.MinimumFilter;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 
+import java.util.Arrays;
+
 public class WaterLevelingAdapter implements RegionAdapter {
-    private static final int LEVEL_RANGE = 8;
+    public static final int DEFAULT_LEVEL_RANGE = 8;
 
     private final RegionComponentType<WaterRasterTile> waterComponent;
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final int oceanLevel;
+    private final int levelRange;
 
-    public WaterLevelingAdapter(RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, int oceanLevel) {
+    private final int[] rowRadii;
+    private final int[] filterRadii;
+
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    public WaterLevelingAdapter(RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, int oceanLevel, int levelRange) {
         this.waterComponent = waterComponent;
         this.heightComponent = heightComponent;
         this.oceanLevel = oceanLevel;
+        this.levelRange = Math.max(levelRange, 0);
+
+        int rangeSquared = this.levelRange * this.levelRange;
+        this.rowRadii = new int[this.levelRange * 2 + 1];
+        for (int offsetZ = -this.levelRange; offsetZ <= this.levelRange; offsetZ++) {
+            this.rowRadii[offsetZ + this.levelRange] = (int) Math.floor(Math.sqrt(rangeSquared - offsetZ * offsetZ));
+        }
+        this.filterRadii = Arrays.stream(this.rowRadii).distinct().sorted().toArray();
+    }
+
+    public WaterLevelingAdapter(RegionComponentType<WaterRasterTile> waterComponent, RegionComponentType<ShortRasterTile> heightComponent, int oceanLevel) {
+        this(waterComponent, heightComponent, oceanLevel, DEFAULT_LEVEL_RANGE);
     }
 
     @Override
@@ -25,36 +47,74 @@ public class WaterLevelingAdapter implements RegionAdapter {
         WaterRasterTile waterTile = data.getOrExcept(this.waterComponent);
         ShortRasterTile heightTile = data.getOrExcept(this.heightComponent);
 
+        short[][] rowMinimums = null;
+
         for (int localZ = 0; localZ < height; localZ++) {
             for (int localX = 0; localX < width; localX++) {
                 int waterType = waterTile.getWaterType(localX, localZ);
                 if (waterType == WaterRasterTile.OCEAN) {
-                   waterTile.setWaterLevel(localX, localZ, this.oceanLevel);
+                    waterTile.setWaterLevel(localX, localZ, this.oceanLevel);
                 } else if (waterType == WaterRasterTile.RIVER) {
-                    int levelHeight = Math.max(getLevelHeight(heightTile, localX, localZ, width, height), this.oceanLevel);
+                    if (rowMinimums == null) {
+                        rowMinimums = this.computeRowMinimums(heightTile.getShortData(), width, height);
+                    }
+                    int levelHeight = Math.max(this.getLevelHeight(rowMinimums, localX, localZ, width, height), this.oceanLevel);
                     waterTile.setWaterLevel(localX, localZ, levelHeight);
                 }
             }
         }
     }
 
-    private static short getLevelHeight(ShortRasterTile heightTile, int localX, int localZ, int width, int height) {
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.waterComponent, this.heightComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.waterComponent);
+    }
+
+    private short[][] computeRowMinimums(short[] heightBuffer, int width, int height) {
+        Buffers buffers = this.buffers.get();
+        short[][] rowMinimums = buffers.getRowMinimums(this.levelRange + 1, this.filterRadii, width * height);
+        for (int radius : this.filterRadii) {
+            short[] minimums = rowMinimums[radius];
+            for (int localZ = 0; localZ < height; localZ++) {
+                buffers.filter.filterRow(heightBuffer, localZ * width, width, radius, minimums, localZ * width);
+            }
+        }
+        return rowMinimums;
+    }
+
+    private short getLevelHeight(short[][] rowMinimums, int localX, int localZ, int width, int height) {
         short minValue = Short.MAX_VALUE;
-        int rangeSquared = LEVEL_RANGE * LEVEL_RANGE;
-        for (int offsetZ = -LEVEL_RANGE; offsetZ <= LEVEL_RANGE; offsetZ++) {
-            for (int offsetX = -LEVEL_RANGE; offsetX <= LEVEL_RANGE; offsetX++) {
-                if (offsetX * offsetX + offsetZ * offsetZ <= rangeSquared) {
-                    int globalX = localX + offsetX;
-                    int globalZ = localZ + offsetZ;
-                    if (globalX >= 0 && globalZ >= 0 && globalX < width && globalZ < height) {
-                        short neighbourValue = heightTile.getShort(globalX, globalZ);
-                        if (neighbourValue < minValue) {
-                            minValue = neighbourValue;
-                        }
-                    }
-                }
+        int minOffsetZ = Math.max(-this.levelRange, -localZ);
+        int maxOffsetZ = Math.min(this.levelRange, height - 1 - localZ);
+        for (int offsetZ = minOffsetZ; offsetZ <= maxOffsetZ; offsetZ++) {
+            short[] minimums = rowMinimums[this.rowRadii[offsetZ + this.levelRange]];
+            short value = minimums[localX + (localZ + offsetZ) * width];
+            if (value < minValue) {
+                minValue = value;
             }
         }
         return minValue;
     }
+
+    private static class Buffers {
+        private final MinimumFilter filter = new MinimumFilter();
+        private short[][] rowMinimums = new short[0][];
+        private int size = -1;
+
+        private short[][] getRowMinimums(int radiusCount, int[] radii, int size) {
+            if (this.rowMinimums.length != radiusCount || this.size != size) {
+                this.rowMinimums = new short[radiusCount][];
+                for (int radius : radii) {
+                    this.rowMinimums[radius] = new short[size];
+                }
+                this.size = size;
+            }
+            return this.rowMinimums;
+        }
+    }
 }
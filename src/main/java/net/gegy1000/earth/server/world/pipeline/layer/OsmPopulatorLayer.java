@@ -1,12 +1,12 @@
 package net.gegy1000.earth.server.world.pipeline.layer;
 
-import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmRegionTile;
 import net.gegy1000.terrarium.server.world.pipeline.DataLayerProcessor;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 
-public class OsmPopulatorLayer implements DataLayerProcessor<OsmTile, OsmTile> {
+public class OsmPopulatorLayer implements DataLayerProcessor<OsmRegionTile, OsmRegionTile> {
     @Override
-    public OsmTile apply(DataView view, OsmTile parent, DataView parentView) {
+    public OsmRegionTile apply(DataView view, OsmRegionTile parent, DataView parentView) {
         return parent;
     }
 
@@ -1,9 +1,6 @@
 package net.gegy1000.earth.server.world.pipeline.layer;
 
-import de.topobyte.osm4j.core.model.iface.OsmNode;
-import de.topobyte.osm4j.core.model.iface.OsmWay;
-import gnu.trove.map.TLongObjectMap;
-import gnu.trove.map.hash.TLongObjectHashMap;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmRegionTile;
 import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.coordinate.CoordinateState;
@@ -13,7 +10,11 @@ import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
 import net.minecraft.util.math.MathHelper;
 
-public class OsmSampleLayer implements DataLayerProducer<OsmTile> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class OsmSampleLayer implements DataLayerProducer<OsmRegionTile> {
     private final TiledDataSource<OsmTile> overpassSource;
     private final CoordinateState coordinateState;
 
@@ -23,27 +24,51 @@ public class OsmSampleLayer implements DataLayerProducer<OsmTile> {
     }
 
     @Override
-    public OsmTile apply(DataView view) {
+    public CompletableFuture<?> prefetch(DataView view) {
         DataTilePos blockMinTilePos = this.getTilePos(view.getMinCoordinate());
         DataTilePos blockMaxTilePos = this.getTilePos(view.getMaxCoordinate());
 
         DataTilePos minTilePos = DataTilePos.min(blockMinTilePos, blockMaxTilePos);
         DataTilePos maxTilePos = DataTilePos.max(blockMinTilePos, blockMaxTilePos);
 
-        TLongObjectMap<OsmNode> nodes = new TLongObjectHashMap<>();
-        TLongObjectMap<OsmWay> ways = new TLongObjectHashMap<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int tileZ = minTilePos.getTileZ(); tileZ <= maxTilePos.getTileZ(); tileZ++) {
+            for (int tileX = minTilePos.getTileX(); tileX <= maxTilePos.getTileX(); tileX++) {
+                futures.add(this.overpassSource.getTileAsync(new DataTilePos(tileX, tileZ)));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public OsmRegionTile apply(DataView view) {
+        this.prefetch(view).exceptionally(throwable -> null).join();
+
+        DataTilePos blockMinTilePos = this.getTilePos(view.getMinCoordinate());
+        DataTilePos blockMaxTilePos = this.getTilePos(view.getMaxCoordinate());
 
+        DataTilePos minTilePos = DataTilePos.min(blockMinTilePos, blockMaxTilePos);
+        DataTilePos maxTilePos = DataTilePos.max(blockMinTilePos, blockMaxTilePos);
+
+        List<OsmTile> tiles = new ArrayList<>();
         for (int tileZ = minTilePos.getTileZ(); tileZ <= maxTilePos.getTileZ(); tileZ++) {
             for (int tileX = minTilePos.getTileX(); tileX <= maxTilePos.getTileX(); tileX++) {
                 OsmTile tile = this.overpassSource.getTile(new DataTilePos(tileX, tileZ));
                 if (tile != null) {
-                    nodes.putAll(tile.getNodes());
-                    ways.putAll(tile.getWays());
+                    tiles.add(tile);
                 }
             }
         }
 
-        return new OsmTile(nodes, ways);
+        Coordinate minCoordinate = view.getMinCoordinate().to(this.coordinateState);
+        Coordinate maxCoordinate = view.getMaxCoordinate().to(this.coordinateState);
+        double minX = Math.min(minCoordinate.getX(), maxCoordinate.getX());
+        double minZ = Math.min(minCoordinate.getZ(), maxCoordinate.getZ());
+        double maxX = Math.max(minCoordinate.getX(), maxCoordinate.getX());
+        double maxZ = Math.max(minCoordinate.getZ(), maxCoordinate.getZ());
+
+        return OsmRegionTile.select(tiles, minX, minZ, maxX, maxZ);
     }
 
     private DataTilePos getTilePos(Coordinate coordinate) {
@@ -1,17 +1,19 @@
 package net.gegy1000.earth.server.world.pipeline.source;
 
-import net.gegy1000.earth.server.world.cover.EarthCoverTypes;
+import net.gegy1000.earth.server.world.pipeline.source.tile.GlobcoverRasterTile;
 import net.gegy1000.terrarium.Terrarium;
-import net.gegy1000.terrarium.server.util.ArrayUtils;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.coordinate.CoordinateState;
-import net.gegy1000.terrarium.server.world.cover.CoverType;
 import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.pipeline.source.CachedRemoteSource;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
+import net.gegy1000.terrarium.server.world.pipeline.source.LoadingState;
+import net.gegy1000.terrarium.server.world.pipeline.source.LoadingStateHandler;
+import net.gegy1000.terrarium.server.world.pipeline.source.MappedRasterStore;
 import net.gegy1000.terrarium.server.world.pipeline.source.SourceException;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ConstantCoverRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterAccess;
 import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
 
 import java.io.DataInputStream;
@@ -19,15 +21,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
 
-public class GlobcoverSource extends TiledDataSource<CoverRasterTile> implements CachedRemoteSource {
+public class GlobcoverSource extends TiledDataSource<CoverRasterAccess> implements CachedRemoteSource {
     public static final int TILE_SIZE = 2560;
 
+    private static final ConstantCoverRasterTile DEFAULT_TILE = new ConstantCoverRasterTile(TerrariumCoverTypes.PLACEHOLDER, TILE_SIZE, TILE_SIZE);
+
     private final File cacheRoot;
+    private final MappedRasterStore rasterStore;
 
     public GlobcoverSource(CoordinateState coordinateState, String cacheRoot) {
-        super(new Coordinate(coordinateState, TILE_SIZE, TILE_SIZE), 4);
+        super(new Coordinate(coordinateState, TILE_SIZE, TILE_SIZE));
         this.cacheRoot = new File(CachedRemoteSource.GLOBAL_CACHE_ROOT, cacheRoot);
+        this.rasterStore = new MappedRasterStore(new File(this.cacheRoot, "mapped"));
     }
 
     @Override
@@ -47,7 +54,14 @@ public class GlobcoverSource extends TiledDataSource<CoverRasterTile> implements
     }
 
     @Override
-    public CoverRasterTile loadTile(DataTilePos key) throws SourceException {
+    public CoverRasterAccess loadTile(DataTilePos key) throws SourceException {
+        String cachedName = this.getCachedName(key);
+        MappedRasterStore.MappedRaster mappedRaster = this.rasterStore.load(cachedName, Byte.BYTES);
+        if (mappedRaster != null) {
+            LoadingStateHandler.putState(LoadingState.LOADING_CACHED);
+            return this.createTile(mappedRaster);
+        }
+
         try (DataInputStream input = new DataInputStream(this.getStream(key))) {
             int width = input.readUnsignedShort();
             int height = input.readUnsignedShort();
@@ -58,11 +72,11 @@ public class GlobcoverSource extends TiledDataSource<CoverRasterTile> implements
             byte[] buffer = new byte[width * height];
             input.readFully(buffer);
 
-            CoverType[] cover = new CoverType[buffer.length];
-            for (int i = 0; i < buffer.length; i++) {
-                cover[i] = EarthCoverTypes.Glob.get(buffer[i]).getCoverType();
+            mappedRaster = this.rasterStore.store(cachedName, ByteBuffer.wrap(buffer), Byte.BYTES, width, height, offsetX, offsetZ);
+            if (mappedRaster != null) {
+                return this.createTile(mappedRaster);
             }
-            return new CoverRasterTile(cover, offsetX, offsetZ, width, height);
+            return new GlobcoverRasterTile(ByteBuffer.wrap(buffer), offsetX, offsetZ, width, height);
         } catch (IOException e) {
             Terrarium.LOGGER.error("Failed to parse heights tile at {}", key, e);
         }
@@ -70,14 +84,17 @@ public class GlobcoverSource extends TiledDataSource<CoverRasterTile> implements
         return null;
     }
 
+    private GlobcoverRasterTile createTile(MappedRasterStore.MappedRaster raster) {
+        return new GlobcoverRasterTile(raster.getData(), raster.getOffsetX(), raster.getOffsetZ(), raster.getWidth(), raster.getHeight());
+    }
+
     @Override
-    public Class<CoverRasterTile> getTileType() {
-        return CoverRasterTile.class;
+    public Class<CoverRasterAccess> getTileType() {
+        return CoverRasterAccess.class;
     }
 
     @Override
-    protected CoverRasterTile getDefaultTile() {
-        CoverType[] backingData = ArrayUtils.defaulted(new CoverType[TILE_SIZE * TILE_SIZE], TerrariumCoverTypes.PLACEHOLDER);
-        return new CoverRasterTile(backingData, 0, 0, TILE_SIZE, TILE_SIZE);
+    protected CoverRasterAccess getDefaultTile() {
+        return DEFAULT_TILE;
     }
 }
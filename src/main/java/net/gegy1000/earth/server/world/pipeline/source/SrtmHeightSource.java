@@ -5,9 +5,14 @@ import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.coordinate.CoordinateState;
 import net.gegy1000.terrarium.server.world.pipeline.source.CachedRemoteSource;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
+import net.gegy1000.terrarium.server.world.pipeline.source.LoadingState;
+import net.gegy1000.terrarium.server.world.pipeline.source.LoadingStateHandler;
+import net.gegy1000.terrarium.server.world.pipeline.source.MappedRasterStore;
 import net.gegy1000.terrarium.server.world.pipeline.source.SourceException;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ConstantShortRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortBufferRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterAccess;
 import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
 
 import java.io.BufferedInputStream;
@@ -16,20 +21,26 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 
-public class SrtmHeightSource extends TiledDataSource<ShortRasterTile> implements CachedRemoteSource {
+public class SrtmHeightSource extends TiledDataSource<ShortRasterAccess> implements CachedRemoteSource {
     public static final int TILE_SIZE = 1200;
 
     private static final Set<DataTilePos> VALID_TILES = new HashSet<>();
 
+    private static final ConstantShortRasterTile DEFAULT_TILE = new ConstantShortRasterTile((short) 0, TILE_SIZE, TILE_SIZE);
+
     private final File cacheRoot;
+    private final MappedRasterStore rasterStore;
 
     public SrtmHeightSource(CoordinateState coordinateState, String cacheRoot) {
-        super(new Coordinate(coordinateState, TILE_SIZE, TILE_SIZE), 9);
+        super(new Coordinate(coordinateState, TILE_SIZE, TILE_SIZE));
         this.cacheRoot = new File(CachedRemoteSource.GLOBAL_CACHE_ROOT, cacheRoot);
+        this.rasterStore = new MappedRasterStore(new File(this.cacheRoot, "mapped"));
     }
 
     public static void loadValidTiles() {
@@ -50,9 +61,16 @@ public class SrtmHeightSource extends TiledDataSource<ShortRasterTile> implement
     }
 
     @Override
-    public ShortRasterTile loadTile(DataTilePos key) throws SourceException {
+    public ShortRasterAccess loadTile(DataTilePos key) throws SourceException {
         key = new DataTilePos(key.getTileX(), key.getTileZ() + 1);
         if (VALID_TILES.isEmpty() || VALID_TILES.contains(key)) {
+            String cachedName = this.getCachedName(key);
+            MappedRasterStore.MappedRaster mappedRaster = this.rasterStore.load(cachedName, Short.BYTES);
+            if (mappedRaster != null) {
+                LoadingStateHandler.putState(LoadingState.LOADING_CACHED);
+                return new ShortBufferRasterTile(mappedRaster.getData().asShortBuffer(), TILE_SIZE, TILE_SIZE);
+            }
+
             try (DataInputStream input = new DataInputStream(this.getStream(key))) {
                 short[] heightmap = new short[TILE_SIZE * TILE_SIZE];
                 short origin = input.readShort();
@@ -65,7 +83,14 @@ public class SrtmHeightSource extends TiledDataSource<ShortRasterTile> implement
                         heightmap[i] = (short) ((input.readByte() & 0xFF) + origin);
                     }
                 }
-                return new ShortRasterTile(heightmap, TILE_SIZE, TILE_SIZE);
+                ByteBuffer buffer = ByteBuffer.allocate(heightmap.length * Short.BYTES);
+                buffer.asShortBuffer().put(heightmap);
+
+                mappedRaster = this.rasterStore.store(cachedName, buffer, Short.BYTES, TILE_SIZE, TILE_SIZE, 0, 0);
+                if (mappedRaster != null) {
+                    return new ShortBufferRasterTile(mappedRaster.getData().asShortBuffer(), TILE_SIZE, TILE_SIZE);
+                }
+                return new ShortBufferRasterTile(ShortBuffer.wrap(heightmap), TILE_SIZE, TILE_SIZE);
             } catch (IOException e) {
                 Terrarium.LOGGER.error("Failed to parse height tile at {} ({})", key, this.getCachedName(key), e);
             }
@@ -74,13 +99,13 @@ public class SrtmHeightSource extends TiledDataSource<ShortRasterTile> implement
     }
 
     @Override
-    public Class<ShortRasterTile> getTileType() {
-        return ShortRasterTile.class;
+    public Class<ShortRasterAccess> getTileType() {
+        return ShortRasterAccess.class;
     }
 
     @Override
-    protected ShortRasterTile getDefaultTile() {
-        return new ShortRasterTile(new short[TILE_SIZE * TILE_SIZE], TILE_SIZE, TILE_SIZE);
+    protected ShortRasterAccess getDefaultTile() {
+        return DEFAULT_TILE;
     }
 
     @Override
@@ -3,9 +3,7 @@ package net.gegy1000.earth.server.world.pipeline.source.osm;
 import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
-import de.topobyte.osm4j.core.access.OsmIterator;
-import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
-import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
+import de.topobyte.osm4j.core.access.OsmInputException;
 import de.topobyte.osm4j.core.model.iface.OsmEntity;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
 import de.topobyte.osm4j.core.model.iface.OsmTag;
@@ -38,14 +36,10 @@ public class OsmDataParser {
     }
 
     public static OsmTile parse(InputStream input) throws IOException {
-        InMemoryMapDataSet entities = OsmDataParser.parseEntities(input);
-        return new OsmTile(entities);
-    }
-
-    private static InMemoryMapDataSet parseEntities(InputStream input) throws IOException {
         try {
-            OsmIterator iterator = new OsmJsonIterator(input);
-            return MapDataSetLoader.read(iterator, true, true, true);
+            return new OsmJsonReader(input).read();
+        } catch (OsmInputException e) {
+            throw new RuntimeException("Error while processing input", e);
         } finally {
             IOUtils.closeQuietly(input);
         }
@@ -1,162 +1,125 @@
 package net.gegy1000.earth.server.world.pipeline.source.osm;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
-import de.topobyte.osm4j.core.access.OsmHandler;
+import com.google.gson.stream.JsonReader;
 import de.topobyte.osm4j.core.access.OsmInputException;
-import de.topobyte.osm4j.core.access.OsmReader;
-import de.topobyte.osm4j.core.model.iface.EntityType;
-import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
-import de.topobyte.osm4j.core.model.iface.OsmTag;
-import de.topobyte.osm4j.core.model.impl.Entity;
-import de.topobyte.osm4j.core.model.impl.Node;
-import de.topobyte.osm4j.core.model.impl.Relation;
-import de.topobyte.osm4j.core.model.impl.RelationMember;
-import de.topobyte.osm4j.core.model.impl.Tag;
-import de.topobyte.osm4j.core.model.impl.Way;
 import gnu.trove.list.TLongList;
 import gnu.trove.list.array.TLongArrayList;
-import org.apache.commons.io.IOUtils;
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
-public class OsmJsonReader implements OsmReader {
-    private static final JsonParser JSON_PARSER = new JsonParser();
 
+public class OsmJsonReader {
     private final InputStream input;
 
-    private OsmHandler handler;
+    private final OsmTile.Builder builder = OsmTile.builder();
+
+    private final TLongList nodes = new TLongArrayList();
+    private final List<String> tagKeys = new ArrayList<>();
+    private final List<String> tagValues = new ArrayList<>();
 
     public OsmJsonReader(InputStream input) {
         this.input = input;
     }
 
-    @Override
-    public void setHandler(OsmHandler handler) {
-        this.handler = handler;
-    }
-
-    @Override
-    public void read() throws OsmInputException {
-        if (this.handler == null) {
-            throw new OsmInputException("handler not set");
-        }
-
-        String data = null;
-        try (InputStreamReader reader = new InputStreamReader(this.input)) {
-            data = IOUtils.toString(reader);
-            JsonObject root = JSON_PARSER.parse(data).getAsJsonObject();
-            JsonArray elementsArray = root.getAsJsonArray("elements");
-
-            for (JsonElement element : elementsArray) {
-                this.parseElement(element.getAsJsonObject());
+    public OsmTile read() throws OsmInputException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(this.input, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("elements")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        this.parseElement(reader);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
             }
-        } catch (IOException | JsonParseException e) {
-            throw new OsmInputException("error while parsing json data: " + data, e);
+            reader.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new OsmInputException("error while parsing json data", e);
         }
 
-        try {
-            this.handler.complete();
-        } catch (IOException e) {
-            throw new OsmInputException("error while completing handler", e);
-        }
+        return this.builder.build();
     }
 
-    private void parseElement(JsonObject elementObject) throws IOException {
-        long id = elementObject.get("id").getAsLong();
-        String type = elementObject.get("type").getAsString();
-
-        switch (type) {
-            case "node":
-                this.parseNode(id, elementObject);
-                break;
-            case "way":
-                this.parseWay(id, elementObject);
-                break;
-            case "relation":
-                this.parseRelation(id, elementObject);
-                break;
+    private void parseElement(JsonReader reader) throws IOException {
+        String type = null;
+        long id = 0;
+        double latitude = 0.0;
+        double longitude = 0.0;
+
+        this.nodes.clear();
+        this.tagKeys.clear();
+        this.tagValues.clear();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type":
+                    type = reader.nextString();
+                    break;
+                case "id":
+                    id = reader.nextLong();
+                    break;
+                case "lat":
+                    latitude = reader.nextDouble();
+                    break;
+                case "lon":
+                    longitude = reader.nextDouble();
+                    break;
+                case "nodes":
+                    this.parseNodes(reader);
+                    break;
+                case "tags":
+                    this.parseTags(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
         }
-    }
-
-    private void parseNode(long id, JsonObject elementObject) throws IOException {
-        double latitude = elementObject.get("lat").getAsDouble();
-        double longitude = elementObject.get("lon").getAsDouble();
-
-        Node node = new Node(id, latitude, longitude);
-        this.parseTags(node, elementObject);
-
-        this.handler.handle(node);
-    }
-
-    private void parseWay(long id, JsonObject elementObject) throws IOException {
-        TLongList nodes = new TLongArrayList();
-
-        if (elementObject.has("nodes")) {
-            JsonArray nodesArray = elementObject.get("nodes").getAsJsonArray();
-            for (JsonElement nodeElement : nodesArray) {
-                nodes.add(nodeElement.getAsLong());
+        reader.endObject();
+
+        // Fields can arrive in any order, so entities are only handed to the builder once the whole element is read
+        if ("node".equals(type)) {
+            // The lat/lng coordinate state takes latitude as its x axis, so it fills the builder's first coordinate
+            this.builder.addNode(id, latitude, longitude);
+            this.addTags();
+        } else if ("way".equals(type)) {
+            this.builder.addWay(id);
+            for (int i = 0; i < this.nodes.size(); i++) {
+                this.builder.addWayNode(this.nodes.get(i));
             }
+            this.addTags();
         }
-
-        Way way = new Way(id, nodes);
-        this.parseTags(way, elementObject);
-
-        this.handler.handle(way);
     }
 
-    private void parseRelation(long id, JsonObject elementObject) throws IOException {
-        List<OsmRelationMember> members = new ArrayList<>();
-
-        if (elementObject.has("members")) {
-            JsonArray membersArray = elementObject.getAsJsonArray("members");
-            for (JsonElement memberElement : membersArray) {
-                JsonObject memberObject = memberElement.getAsJsonObject();
-
-                long ref = memberObject.get("ref").getAsLong();
-                EntityType type = this.parseType(memberObject.get("type").getAsString());
-                String role = memberObject.get("role").getAsString();
-
-                members.add(new RelationMember(ref, type, role));
-            }
+    private void parseNodes(JsonReader reader) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            this.nodes.add(reader.nextLong());
         }
-
-        Relation relation = new Relation(id, members);
-        this.parseTags(relation, elementObject);
-
-        this.handler.handle(relation);
+        reader.endArray();
     }
 
-    private EntityType parseType(String type) {
-        switch (type) {
-            case "node":
-                return EntityType.Node;
-            case "way":
-                return EntityType.Way;
-            case "relation":
-                return EntityType.Relation;
+    private void parseTags(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            this.tagKeys.add(reader.nextName());
+            this.tagValues.add(reader.nextString());
         }
-        return null;
+        reader.endObject();
     }
 
-    private void parseTags(Entity entity, JsonObject elementObject) {
-        List<OsmTag> tags = new ArrayList<>();
-
-        if (elementObject.has("tags")) {
-            JsonObject tagsObject = elementObject.getAsJsonObject("tags");
-            for (Map.Entry<String, JsonElement> entry : tagsObject.entrySet()) {
-                tags.add(new Tag(entry.getKey(), entry.getValue().getAsString()));
-            }
+    private void addTags() {
+        for (int i = 0; i < this.tagKeys.size(); i++) {
+            this.builder.addTag(this.tagKeys.get(i), this.tagValues.get(i));
         }
-
-        entity.setTags(tags);
     }
 }
@@ -0,0 +1,256 @@
+package net.gegy1000.earth.server.world.pipeline.source.osm;
+
+import net.gegy1000.earth.server.world.pipeline.source.tile.OsmTile;
+import net.gegy1000.terrarium.Terrarium;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class OsmTileStore {
+    private static final int MAGIC = 0x4F534D54;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private final File root;
+    private final int queryVersion;
+
+    public OsmTileStore(File root, int queryVersion) {
+        this.root = root;
+        this.queryVersion = queryVersion;
+    }
+
+    @Nullable
+    public OsmTile load(String name) {
+        File file = this.getFile(name);
+        if (!file.exists()) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                continue;
+            }
+            buffer.flip();
+        } catch (IOException e) {
+            Terrarium.LOGGER.warn("Failed to read cached OSM tile {}", file, e);
+            return null;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION || (buffer.getShort() & 0xFFFF) != this.queryVersion) {
+                return null;
+            }
+            return this.decode(buffer);
+        } catch (RuntimeException e) {
+            Terrarium.LOGGER.warn("Ignoring corrupt cached OSM tile {}", file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    public void store(String name, OsmTile tile) {
+        if (!this.root.exists()) {
+            this.root.mkdirs();
+        }
+
+        File file = this.getFile(name);
+
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(name + ".", ".tmp", this.root);
+            try (DataOutputStream output = new DataOutputStream(new FileOutputStream(tempFile))) {
+                output.writeInt(MAGIC);
+                output.writeByte(FORMAT_VERSION);
+                output.writeShort(this.queryVersion);
+                output.write(this.encode(tile));
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Terrarium.LOGGER.warn("Failed to store cached OSM tile {}", file, e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    public void remove(String name) {
+        this.getFile(name).delete();
+    }
+
+    private File getFile(String name) {
+        return new File(this.root, name + ".osmb");
+    }
+
+    private byte[] encode(OsmTile tile) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writeVarLong(output, tile.getStringCount());
+        for (int i = 0; i < tile.getStringCount(); i++) {
+            byte[] bytes = tile.getString(i).getBytes(StandardCharsets.UTF_8);
+            writeVarLong(output, bytes.length);
+            output.write(bytes, 0, bytes.length);
+        }
+
+        int nodeCount = tile.getNodeCount();
+        writeVarLong(output, nodeCount);
+
+        long lastId = 0;
+        int lastLatitude = 0;
+        int lastLongitude = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            long id = tile.getNodeId(node);
+            int latitude = (int) Math.round(tile.getNodeLatitude(node) * COORDINATE_SCALE);
+            int longitude = (int) Math.round(tile.getNodeLongitude(node) * COORDINATE_SCALE);
+
+            writeVarLong(output, zigZag(id - lastId));
+            writeVarLong(output, zigZag(latitude - lastLatitude));
+            writeVarLong(output, zigZag(longitude - lastLongitude));
+
+            int tagCount = tile.getNodeTagCount(node);
+            writeVarLong(output, tagCount);
+            for (int tag = 0; tag < tagCount; tag++) {
+                writeVarLong(output, tile.getNodeTagKey(node, tag));
+                writeVarLong(output, tile.getNodeTagValue(node, tag));
+            }
+
+            lastId = id;
+            lastLatitude = latitude;
+            lastLongitude = longitude;
+        }
+
+        int wayCount = tile.getWayCount();
+        writeVarLong(output, wayCount);
+
+        lastId = 0;
+        for (int way = 0; way < wayCount; way++) {
+            long id = tile.getWayId(way);
+            writeVarLong(output, zigZag(id - lastId));
+
+            int wayNodeCount = tile.getWayNodeCount(way);
+            writeVarLong(output, wayNodeCount);
+            long lastNode = 0;
+            for (int i = 0; i < wayNodeCount; i++) {
+                long node = tile.getWayNodeId(way, i);
+                writeVarLong(output, zigZag(node - lastNode));
+                lastNode = node;
+            }
+
+            int tagCount = tile.getWayTagCount(way);
+            writeVarLong(output, tagCount);
+            for (int tag = 0; tag < tagCount; tag++) {
+                writeVarLong(output, tile.getWayTagKey(way, tag));
+                writeVarLong(output, tile.getWayTagValue(way, tag));
+            }
+
+            lastId = id;
+        }
+
+        return output.toByteArray();
+    }
+
+    private OsmTile decode(ByteBuffer buffer) {
+        String[] strings = new String[readCount(buffer, 1)];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount(buffer, 1);
+            strings[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+
+        OsmTile.Builder builder = OsmTile.builder();
+
+        int nodeCount = readCount(buffer, 4);
+        long id = 0;
+        int latitude = 0;
+        int longitude = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            id += unZigZag(readVarLong(buffer));
+            latitude += (int) unZigZag(readVarLong(buffer));
+            longitude += (int) unZigZag(readVarLong(buffer));
+
+            builder.addNode(id, longitude / COORDINATE_SCALE, latitude / COORDINATE_SCALE);
+            this.readTags(buffer, builder, strings);
+        }
+
+        int wayCount = readCount(buffer, 3);
+        id = 0;
+        for (int i = 0; i < wayCount; i++) {
+            id += unZigZag(readVarLong(buffer));
+            builder.addWay(id);
+
+            int wayNodeCount = readCount(buffer, 1);
+            long node = 0;
+            for (int n = 0; n < wayNodeCount; n++) {
+                node += unZigZag(readVarLong(buffer));
+                builder.addWayNode(node);
+            }
+
+            this.readTags(buffer, builder, strings);
+        }
+
+        return builder.build();
+    }
+
+    private void readTags(ByteBuffer buffer, OsmTile.Builder builder, String[] strings) {
+        int tagCount = readCount(buffer, 2);
+        for (int i = 0; i < tagCount; i++) {
+            String key = strings[(int) readVarLong(buffer)];
+            String value = strings[(int) readVarLong(buffer)];
+            builder.addTag(key, value);
+        }
+    }
+
+    // Every entry takes at least the given number of bytes, so a count the buffer cannot hold is corrupt and must not be allocated for
+    private static int readCount(ByteBuffer buffer, int minEntryBytes) {
+        long count = readVarLong(buffer);
+        if (count < 0 || count > buffer.remaining() / minEntryBytes) {
+            throw new IllegalStateException("Count " + count + " exceeds the " + buffer.remaining() + " remaining bytes");
+        }
+        return (int) count;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte read;
+        do {
+            read = buffer.get();
+            value |= (long) (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
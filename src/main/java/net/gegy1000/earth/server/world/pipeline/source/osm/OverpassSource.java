@@ -36,15 +36,17 @@ public class OverpassSource extends TiledDataSource<OsmTile> implements CachedRe
     private final File cacheRoot;
 
     private final int queryVersion;
+    private final OsmTileStore tileStore;
 
     private final boolean shouldSample;
 
     private String query;
 
     public OverpassSource(CoordinateState latLngCoordinate, double tileSize, String cacheRoot, ResourceLocation queryLocation, int queryVersion) {
-        super(new Coordinate(latLngCoordinate, tileSize, tileSize), 4);
+        super(new Coordinate(latLngCoordinate, tileSize, tileSize));
         this.cacheRoot = new File(CachedRemoteSource.GLOBAL_CACHE_ROOT, cacheRoot);
         this.queryVersion = queryVersion;
+        this.tileStore = new OsmTileStore(this.cacheRoot, queryVersion);
 
         this.shouldSample = this.tileSize.getBlockX() > 512;
 
@@ -115,6 +117,10 @@ public class OverpassSource extends TiledDataSource<OsmTile> implements CachedRe
         return String.format("%s_%s.osm", key.getTileX(), key.getTileZ());
     }
 
+    private String getStoredName(DataTilePos key) {
+        return String.format("%s_%s", key.getTileX(), key.getTileZ());
+    }
+
     @Override
     public OsmTile loadTile(DataTilePos key) throws SourceException {
         return this.loadTile(key, 0);
@@ -126,13 +132,24 @@ public class OverpassSource extends TiledDataSource<OsmTile> implements CachedRe
     }
 
     private OsmTile loadTile(DataTilePos key, int retries) throws SourceException {
+        String storedName = this.getStoredName(key);
+        if (this.shouldLoadCache(key, new File(this.getCacheRoot(), this.getCachedName(key)))) {
+            OsmTile storedTile = this.tileStore.load(storedName);
+            if (storedTile != null) {
+                return storedTile;
+            }
+        }
+
         try {
-            return OsmDataParser.parse(this.getStream(key));
+            OsmTile tile = OsmDataParser.parse(this.getStream(key));
+            CACHE_SERVICE.submit(() -> this.tileStore.store(storedName, tile));
+            return tile;
         } catch (IOException e) {
             Terrarium.LOGGER.error("Failed to load overpass map tile at {}", this.getCachedName(key), e);
         } catch (RuntimeException e) {
             Terrarium.LOGGER.error("Failed to parse overpass map tile at {}, reloading", this.getCachedName(key), e);
             this.removeCache(key);
+            this.tileStore.remove(storedName);
             if (retries < 2) {
                 return this.loadTile(key, retries + 1);
             }
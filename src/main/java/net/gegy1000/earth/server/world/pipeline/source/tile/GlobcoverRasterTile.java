@@ -0,0 +1,54 @@
+package net.gegy1000.earth.server.world.pipeline.source.tile;
+
+import net.gegy1000.earth.server.world.cover.EarthCoverTypes;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterAccess;
+
+import java.nio.ByteBuffer;
+
+public class GlobcoverRasterTile implements CoverRasterAccess {
+    private static final byte[] GLOB_COVER_IDS = new byte[256];
+
+    static {
+        for (int id = 0; id < GLOB_COVER_IDS.length; id++) {
+            GLOB_COVER_IDS[id] = (byte) CoverTypeRegistry.getId(EarthCoverTypes.Glob.get(id).getCoverType());
+        }
+    }
+
+    private final ByteBuffer data;
+    private final int offsetX;
+    private final int offsetZ;
+    private final int width;
+    private final int height;
+
+    public GlobcoverRasterTile(ByteBuffer data, int offsetX, int offsetZ, int width, int height) {
+        if (data.capacity() != width * height) {
+            throw new IllegalArgumentException("Given width and height do not match buffer capacity!");
+        }
+        this.data = data;
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getCoverId(int x, int z) {
+        return GLOB_COVER_IDS[this.data.get((x - this.offsetX) + (z - this.offsetZ) * this.width) & 0xFF] & 0xFF;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return this.data.isDirect() ? 0 : this.data.capacity();
+    }
+}
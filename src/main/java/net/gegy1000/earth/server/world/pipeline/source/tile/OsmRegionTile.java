@@ -0,0 +1,138 @@
+package net.gegy1000.earth.server.world.pipeline.source.tile;
+
+import com.google.common.collect.ImmutableList;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.core.resolve.OsmEntityProvider;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.MergableTile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OsmRegionTile implements OsmEntityProvider, MergableTile<OsmRegionTile> {
+    private final ImmutableList<OsmTile> sources;
+    private final int[] sourceOffsets;
+    private final int[] ways;
+
+    private OsmRegionTile(ImmutableList<OsmTile> sources, int[] sourceOffsets, int[] ways) {
+        this.sources = sources;
+        this.sourceOffsets = sourceOffsets;
+        this.ways = ways;
+    }
+
+    public OsmRegionTile() {
+        this(ImmutableList.of(), new int[1], new int[0]);
+    }
+
+    public static OsmRegionTile select(List<OsmTile> sources, double minX, double minZ, double maxX, double maxZ) {
+        TLongSet selectedIds = new TLongHashSet();
+        int[] sourceOffsets = new int[sources.size() + 1];
+        TIntArrayList ways = new TIntArrayList();
+        for (int i = 0; i < sources.size(); i++) {
+            OsmTile source = sources.get(i);
+            int start = ways.size();
+            source.queryWays(minX, minZ, maxX, maxZ, way -> {
+                if (selectedIds.add(source.getWayId(way))) {
+                    ways.add(way);
+                }
+            });
+            ways.sort(start, ways.size());
+            sourceOffsets[i + 1] = ways.size();
+        }
+        return new OsmRegionTile(ImmutableList.copyOf(sources), sourceOffsets, ways.toArray());
+    }
+
+    public void forEachWay(WayVisitor visitor) {
+        for (int source = 0; source < this.sources.size(); source++) {
+            OsmTile tile = this.sources.get(source);
+            for (int i = this.sourceOffsets[source]; i < this.sourceOffsets[source + 1]; i++) {
+                visitor.visit(tile, this.ways[i]);
+            }
+        }
+    }
+
+    public void forEachWayWithTag(String key, String value, WayVisitor visitor) {
+        for (int source = 0; source < this.sources.size(); source++) {
+            OsmTile tile = this.sources.get(source);
+            int start = this.sourceOffsets[source];
+            int end = this.sourceOffsets[source + 1];
+            int tag = tile.findWayTag(key, value);
+            if (tag == -1 || start == end) {
+                continue;
+            }
+            for (int i = 0; i < tile.getTaggedWayCount(tag); i++) {
+                int way = tile.getTaggedWay(tag, i);
+                if (Arrays.binarySearch(this.ways, start, end, way) >= 0) {
+                    visitor.visit(tile, way);
+                }
+            }
+        }
+    }
+
+    @Override
+    public OsmRegionTile merge(OsmRegionTile other) {
+        List<OsmTile> sources = new ArrayList<>(this.sources.size() + other.sources.size());
+        sources.addAll(this.sources);
+        sources.addAll(other.sources);
+
+        TLongSet wayIds = new TLongHashSet(this.ways.length + other.ways.length);
+        this.forEachWay((tile, way) -> wayIds.add(tile.getWayId(way)));
+
+        int[] sourceOffsets = Arrays.copyOf(this.sourceOffsets, sources.size() + 1);
+        TIntArrayList ways = new TIntArrayList(this.ways.length + other.ways.length);
+        ways.add(this.ways);
+        for (int source = 0; source < other.sources.size(); source++) {
+            OsmTile tile = other.sources.get(source);
+            for (int i = other.sourceOffsets[source]; i < other.sourceOffsets[source + 1]; i++) {
+                if (wayIds.add(tile.getWayId(other.ways[i]))) {
+                    ways.add(other.ways[i]);
+                }
+            }
+            sourceOffsets[this.sources.size() + source + 1] = ways.size();
+        }
+
+        return new OsmRegionTile(ImmutableList.copyOf(sources), sourceOffsets, ways.toArray());
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return this.sources.size() * (8L + Integer.BYTES) + this.ways.length * (long) Integer.BYTES;
+    }
+
+    @Override
+    public OsmNode getNode(long id) throws EntityNotFoundException {
+        for (OsmTile source : this.sources) {
+            int node = source.findNode(id);
+            if (node != -1) {
+                return source.createNode(node);
+            }
+        }
+        throw new EntityNotFoundException("Node with id " + id + " not found");
+    }
+
+    @Override
+    public OsmWay getWay(long id) throws EntityNotFoundException {
+        for (OsmTile source : this.sources) {
+            int way = source.findWay(id);
+            if (way != -1) {
+                return source.createWay(way);
+            }
+        }
+        throw new EntityNotFoundException("Way with id " + id + " not found");
+    }
+
+    @Override
+    public OsmRelation getRelation(long id) throws EntityNotFoundException {
+        throw new EntityNotFoundException("Relation with id " + id + " not found");
+    }
+
+    public interface WayVisitor {
+        void visit(OsmTile tile, int way);
+    }
+}
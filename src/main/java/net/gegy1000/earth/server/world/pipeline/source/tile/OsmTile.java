@@ -1,73 +1,425 @@
 package net.gegy1000.earth.server.world.pipeline.source.tile;
 
-import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
 import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
 import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
 import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
 import de.topobyte.osm4j.core.resolve.OsmEntityProvider;
-import gnu.trove.map.TLongObjectMap;
-import gnu.trove.map.hash.TLongObjectHashMap;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.MergableTile;
+import gnu.trove.list.array.TLongArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
-public class OsmTile implements OsmEntityProvider, MergableTile<OsmTile> {
-    private final TLongObjectMap<OsmNode> nodes;
-    private final TLongObjectMap<OsmWay> ways;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
 
-    public OsmTile(TLongObjectMap<OsmNode> nodes, TLongObjectMap<OsmWay> ways) {
-        this.nodes = nodes;
-        this.ways = ways;
-    }
+public class OsmTile implements OsmEntityProvider, TiledDataAccess {
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private final String[] strings;
+    private final Object2IntMap<String> stringIds;
+
+    private final long[] nodeIds;
+    private final int[] nodeLongitudes;
+    private final int[] nodeLatitudes;
+    private final int[] nodeTagOffsets;
+    private final int[] nodeTags;
+
+    private final long[] wayIds;
+    private final int[] wayNodeOffsets;
+    private final long[] wayNodeIds;
+    private final int[] wayNodeIndices;
+    private final int[] wayTagOffsets;
+    private final int[] wayTags;
+
+    private final Long2IntMap wayTagIds;
+    private final int[] taggedWayOffsets;
+    private final int[] taggedWays;
+
+    private final OsmWayIndex wayIndex;
+
+    private OsmTile(
+            String[] strings,
+            long[] nodeIds, int[] nodeLongitudes, int[] nodeLatitudes, int[] nodeTagOffsets, int[] nodeTags,
+            long[] wayIds, int[] wayNodeOffsets, long[] wayNodeIds, int[] wayTagOffsets, int[] wayTags
+    ) {
+        this.strings = strings;
+        this.nodeIds = nodeIds;
+        this.nodeLongitudes = nodeLongitudes;
+        this.nodeLatitudes = nodeLatitudes;
+        this.nodeTagOffsets = nodeTagOffsets;
+        this.nodeTags = nodeTags;
+        this.wayIds = wayIds;
+        this.wayNodeOffsets = wayNodeOffsets;
+        this.wayNodeIds = wayNodeIds;
+        this.wayTagOffsets = wayTagOffsets;
+        this.wayTags = wayTags;
+
+        this.stringIds = new Object2IntOpenHashMap<>(strings.length);
+        this.stringIds.defaultReturnValue(-1);
+        for (int i = 0; i < strings.length; i++) {
+            this.stringIds.put(strings[i], i);
+        }
+
+        this.wayNodeIndices = new int[wayNodeIds.length];
+        for (int i = 0; i < wayNodeIds.length; i++) {
+            this.wayNodeIndices[i] = this.findNode(wayNodeIds[i]);
+        }
+
+        this.wayTagIds = new Long2IntOpenHashMap();
+        this.wayTagIds.defaultReturnValue(-1);
+        IntArrayList tagCounts = new IntArrayList();
+        for (int tag = 0; tag < wayTags.length / 2; tag++) {
+            long pair = tagPair(wayTags[tag * 2], wayTags[tag * 2 + 1]);
+            int id = this.wayTagIds.get(pair);
+            if (id == -1) {
+                id = tagCounts.size();
+                this.wayTagIds.put(pair, id);
+                tagCounts.add(0);
+            }
+            tagCounts.set(id, tagCounts.getInt(id) + 1);
+        }
 
-    public OsmTile(InMemoryMapDataSet data) {
-        this(data.getNodes(), data.getWays());
+        this.taggedWayOffsets = new int[tagCounts.size() + 1];
+        for (int id = 0; id < tagCounts.size(); id++) {
+            this.taggedWayOffsets[id + 1] = this.taggedWayOffsets[id] + tagCounts.getInt(id);
+        }
+
+        // Ways are visited in order, so each tag's way list comes out sorted
+        this.taggedWays = new int[wayTags.length / 2];
+        int[] cursors = Arrays.copyOf(this.taggedWayOffsets, tagCounts.size());
+        for (int way = 0; way < wayIds.length; way++) {
+            for (int tag = wayTagOffsets[way]; tag < wayTagOffsets[way + 1]; tag++) {
+                int id = this.wayTagIds.get(tagPair(wayTags[tag * 2], wayTags[tag * 2 + 1]));
+                this.taggedWays[cursors[id]++] = way;
+            }
+        }
+
+        this.wayIndex = new OsmWayIndex(this);
     }
 
     public OsmTile() {
-        this(new TLongObjectHashMap<>(), new TLongObjectHashMap<>());
+        this(new String[0], new long[0], new int[0], new int[0], new int[1], new int[0], new long[0], new int[1], new long[0], new int[1], new int[0]);
     }
 
-    public TLongObjectMap<OsmNode> getNodes() {
-        return this.nodes;
+    public static Builder builder() {
+        return new Builder();
     }
 
-    public TLongObjectMap<OsmWay> getWays() {
-        return this.ways;
+    public int getNodeCount() {
+        return this.nodeIds.length;
     }
 
-    @Override
-    public OsmTile merge(OsmTile tile) {
-        TLongObjectMap<OsmNode> nodes = new TLongObjectHashMap<>(this.nodes.size() + tile.nodes.size());
-        nodes.putAll(this.nodes);
-        nodes.putAll(tile.nodes);
+    public int findNode(long id) {
+        int index = Arrays.binarySearch(this.nodeIds, id);
+        return index >= 0 ? index : -1;
+    }
+
+    public long getNodeId(int node) {
+        return this.nodeIds[node];
+    }
+
+    public double getNodeLongitude(int node) {
+        return this.nodeLongitudes[node] / COORDINATE_SCALE;
+    }
+
+    public double getNodeLatitude(int node) {
+        return this.nodeLatitudes[node] / COORDINATE_SCALE;
+    }
+
+    public int getNodeTagCount(int node) {
+        return this.nodeTagOffsets[node + 1] - this.nodeTagOffsets[node];
+    }
+
+    public int getNodeTagKey(int node, int tag) {
+        return this.nodeTags[(this.nodeTagOffsets[node] + tag) * 2];
+    }
+
+    public int getNodeTagValue(int node, int tag) {
+        return this.nodeTags[(this.nodeTagOffsets[node] + tag) * 2 + 1];
+    }
+
+    public int getWayCount() {
+        return this.wayIds.length;
+    }
+
+    public int findWay(long id) {
+        int index = Arrays.binarySearch(this.wayIds, id);
+        return index >= 0 ? index : -1;
+    }
+
+    public long getWayId(int way) {
+        return this.wayIds[way];
+    }
+
+    public int getWayNodeCount(int way) {
+        return this.wayNodeOffsets[way + 1] - this.wayNodeOffsets[way];
+    }
+
+    public long getWayNodeId(int way, int node) {
+        return this.wayNodeIds[this.wayNodeOffsets[way] + node];
+    }
+
+    public int getWayNodeIndex(int way, int node) {
+        return this.wayNodeIndices[this.wayNodeOffsets[way] + node];
+    }
+
+    public int getWayTagCount(int way) {
+        return this.wayTagOffsets[way + 1] - this.wayTagOffsets[way];
+    }
+
+    public int getWayTagKey(int way, int tag) {
+        return this.wayTags[(this.wayTagOffsets[way] + tag) * 2];
+    }
+
+    public int getWayTagValue(int way, int tag) {
+        return this.wayTags[(this.wayTagOffsets[way] + tag) * 2 + 1];
+    }
+
+    public int findWayTag(String key, String value) {
+        int keyId = this.stringIds.getInt(key);
+        int valueId = this.stringIds.getInt(value);
+        if (keyId == -1 || valueId == -1) {
+            return -1;
+        }
+        return this.wayTagIds.get(tagPair(keyId, valueId));
+    }
+
+    public int getTaggedWayCount(int tag) {
+        return this.taggedWayOffsets[tag + 1] - this.taggedWayOffsets[tag];
+    }
 
-        TLongObjectMap<OsmWay> ways = new TLongObjectHashMap<>(this.ways.size() + tile.ways.size());
-        ways.putAll(this.ways);
-        ways.putAll(tile.ways);
+    public int getTaggedWay(int tag, int index) {
+        return this.taggedWays[this.taggedWayOffsets[tag] + index];
+    }
+
+    public int getStringCount() {
+        return this.strings.length;
+    }
+
+    public String getString(int id) {
+        return this.strings[id];
+    }
+
+    public void queryWays(double minX, double minZ, double maxX, double maxZ, IntConsumer consumer) {
+        this.wayIndex.query(minX, minZ, maxX, maxZ, consumer);
+    }
+
+    public OsmNode createNode(int node) {
+        Node result = new Node(this.nodeIds[node], this.getNodeLongitude(node), this.getNodeLatitude(node));
+        result.setTags(this.createTags(this.nodeTagOffsets, this.nodeTags, node));
+        return result;
+    }
 
-        return new OsmTile(nodes, ways);
+    public OsmWay createWay(int way) {
+        int start = this.wayNodeOffsets[way];
+        int end = this.wayNodeOffsets[way + 1];
+        Way result = new Way(this.wayIds[way], new TLongArrayList(Arrays.copyOfRange(this.wayNodeIds, start, end)));
+        result.setTags(this.createTags(this.wayTagOffsets, this.wayTags, way));
+        return result;
+    }
+
+    private static long tagPair(int key, int value) {
+        return (long) key << 32 | (value & 0xFFFFFFFFL);
+    }
+
+    private List<OsmTag> createTags(int[] offsets, int[] tags, int entity) {
+        List<OsmTag> result = new ArrayList<>(offsets[entity + 1] - offsets[entity]);
+        for (int tag = offsets[entity]; tag < offsets[entity + 1]; tag++) {
+            result.add(new Tag(this.strings[tags[tag * 2]], this.strings[tags[tag * 2 + 1]]));
+        }
+        return result;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        long usage = this.nodeIds.length * (long) (Long.BYTES + Integer.BYTES * 3) + this.nodeTags.length * (long) Integer.BYTES;
+        usage += this.wayIds.length * (long) (Long.BYTES + Integer.BYTES * 2) + this.wayTags.length * (long) Integer.BYTES;
+        usage += this.wayNodeIds.length * (long) (Long.BYTES + Integer.BYTES);
+        for (String string : this.strings) {
+            usage += 40 + string.length() * 2L + 2L * Integer.BYTES;
+        }
+        usage += this.wayTagIds.size() * (long) (Long.BYTES + Integer.BYTES * 2) + this.taggedWays.length * (long) Integer.BYTES;
+        return usage + this.wayIndex.estimateMemoryUsage();
     }
 
     @Override
     public OsmNode getNode(long id) throws EntityNotFoundException {
-        OsmNode node = this.nodes.get(id);
-        if (node == null) {
+        int node = this.findNode(id);
+        if (node == -1) {
             throw new EntityNotFoundException("Node with id " + id + " not found");
         }
-        return node;
+        return this.createNode(node);
     }
 
     @Override
     public OsmWay getWay(long id) throws EntityNotFoundException {
-        OsmWay way = this.ways.get(id);
-        if (way == null) {
+        int way = this.findWay(id);
+        if (way == -1) {
             throw new EntityNotFoundException("Way with id " + id + " not found");
         }
-        return way;
+        return this.createWay(way);
     }
 
     @Override
     public OsmRelation getRelation(long id) throws EntityNotFoundException {
         throw new EntityNotFoundException("Relation with id " + id + " not found");
     }
+
+    public static class Builder {
+        private final List<String> strings = new ArrayList<>();
+        private final Object2IntMap<String> stringIndices = new Object2IntOpenHashMap<>();
+
+        private final LongArrayList nodeIds = new LongArrayList();
+        private final IntArrayList nodeLongitudes = new IntArrayList();
+        private final IntArrayList nodeLatitudes = new IntArrayList();
+        private final IntArrayList nodeTagStarts = new IntArrayList();
+        private final IntArrayList nodeTags = new IntArrayList();
+
+        private final LongArrayList wayIds = new LongArrayList();
+        private final IntArrayList wayNodeStarts = new IntArrayList();
+        private final LongArrayList wayNodeIds = new LongArrayList();
+        private final IntArrayList wayTagStarts = new IntArrayList();
+        private final IntArrayList wayTags = new IntArrayList();
+
+        private IntArrayList currentTags;
+
+        private Builder() {
+            this.stringIndices.defaultReturnValue(-1);
+        }
+
+        public Builder addNode(long id, double longitude, double latitude) {
+            this.nodeIds.add(id);
+            this.nodeLongitudes.add((int) Math.round(longitude * COORDINATE_SCALE));
+            this.nodeLatitudes.add((int) Math.round(latitude * COORDINATE_SCALE));
+            this.nodeTagStarts.add(this.nodeTags.size() / 2);
+            this.currentTags = this.nodeTags;
+            return this;
+        }
+
+        public Builder addWay(long id) {
+            this.wayIds.add(id);
+            this.wayNodeStarts.add(this.wayNodeIds.size());
+            this.wayTagStarts.add(this.wayTags.size() / 2);
+            this.currentTags = this.wayTags;
+            return this;
+        }
+
+        public Builder addWayNode(long nodeId) {
+            this.wayNodeIds.add(nodeId);
+            return this;
+        }
+
+        public Builder addTag(String key, String value) {
+            if (this.currentTags == null) {
+                throw new IllegalStateException("Cannot add tag before any entity");
+            }
+            this.currentTags.add(this.intern(key));
+            this.currentTags.add(this.intern(value));
+            return this;
+        }
+
+        private int intern(String string) {
+            int index = this.stringIndices.getInt(string);
+            if (index == -1) {
+                index = this.strings.size();
+                this.strings.add(string);
+                this.stringIndices.put(string, index);
+            }
+            return index;
+        }
+
+        public OsmTile build() {
+            int[] nodeOrder = sortUnique(this.nodeIds);
+            long[] nodeIds = new long[nodeOrder.length];
+            int[] nodeLongitudes = new int[nodeOrder.length];
+            int[] nodeLatitudes = new int[nodeOrder.length];
+            for (int i = 0; i < nodeOrder.length; i++) {
+                nodeIds[i] = this.nodeIds.getLong(nodeOrder[i]);
+                nodeLongitudes[i] = this.nodeLongitudes.getInt(nodeOrder[i]);
+                nodeLatitudes[i] = this.nodeLatitudes.getInt(nodeOrder[i]);
+            }
+            int[] nodeTagOffsets = new int[nodeOrder.length + 1];
+            int[] nodeTags = gatherPairs(nodeOrder, this.nodeTagStarts, this.nodeTags, nodeTagOffsets);
+
+            int[] wayOrder = sortUnique(this.wayIds);
+            long[] wayIds = new long[wayOrder.length];
+            int[] wayNodeOffsets = new int[wayOrder.length + 1];
+            LongArrayList wayNodeIds = new LongArrayList(this.wayNodeIds.size());
+            for (int i = 0; i < wayOrder.length; i++) {
+                int source = wayOrder[i];
+                wayIds[i] = this.wayIds.getLong(source);
+                int end = source + 1 < this.wayNodeStarts.size() ? this.wayNodeStarts.getInt(source + 1) : this.wayNodeIds.size();
+                for (int node = this.wayNodeStarts.getInt(source); node < end; node++) {
+                    wayNodeIds.add(this.wayNodeIds.getLong(node));
+                }
+                wayNodeOffsets[i + 1] = wayNodeIds.size();
+            }
+            int[] wayTagOffsets = new int[wayOrder.length + 1];
+            int[] wayTags = gatherPairs(wayOrder, this.wayTagStarts, this.wayTags, wayTagOffsets);
+
+            return new OsmTile(
+                    this.strings.toArray(new String[0]),
+                    nodeIds, nodeLongitudes, nodeLatitudes, nodeTagOffsets, nodeTags,
+                    wayIds, wayNodeOffsets, wayNodeIds.toLongArray(), wayTagOffsets, wayTags
+            );
+        }
+
+        private static int[] sortUnique(LongArrayList ids) {
+            int size = ids.size();
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = ids.getLong(i - 1) < ids.getLong(i);
+            }
+
+            if (sorted) {
+                int[] order = new int[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                return order;
+            }
+
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> Long.compare(ids.getLong(left), ids.getLong(right)));
+
+            // Later duplicates replace earlier ones, keeping the last entity parsed for each id
+            IntArrayList unique = new IntArrayList(size);
+            for (int i = 0; i < size; i++) {
+                if (i + 1 < size && ids.getLong(order[i]) == ids.getLong(order[i + 1])) {
+                    continue;
+                }
+                unique.add(order[i].intValue());
+            }
+            return unique.toIntArray();
+        }
+
+        private static int[] gatherPairs(int[] order, IntArrayList starts, IntArrayList pairs, int[] offsets) {
+            int totalPairs = pairs.size() / 2;
+            IntArrayList result = new IntArrayList(pairs.size());
+            for (int i = 0; i < order.length; i++) {
+                int source = order[i];
+                int end = source + 1 < starts.size() ? starts.getInt(source + 1) : totalPairs;
+                for (int pair = starts.getInt(source); pair < end; pair++) {
+                    result.add(pairs.getInt(pair * 2));
+                    result.add(pairs.getInt(pair * 2 + 1));
+                }
+                offsets[i + 1] = result.size() / 2;
+            }
+            return result.toIntArray();
+        }
+    }
 }
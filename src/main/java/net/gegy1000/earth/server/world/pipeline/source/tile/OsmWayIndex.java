@@ -0,0 +1,150 @@
+package net.gegy1000.earth.server.world.pipeline.source.tile;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class OsmWayIndex {
+    private static final int MAX_GRID_SIZE = 64;
+
+    private final int[] ways;
+    private final double[] bounds;
+
+    private final double minX;
+    private final double minZ;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int gridWidth;
+    private final int gridHeight;
+
+    private final int[] cellOffsets;
+    private final int[] cellWays;
+
+    public OsmWayIndex(OsmTile tile) {
+        int wayCount = tile.getWayCount();
+        int[] indexedWays = new int[wayCount];
+        double[] bounds = new double[wayCount * 4];
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+
+        int count = 0;
+        for (int way = 0; way < wayCount; way++) {
+            double wayMinX = Double.POSITIVE_INFINITY;
+            double wayMinZ = Double.POSITIVE_INFINITY;
+            double wayMaxX = Double.NEGATIVE_INFINITY;
+            double wayMaxZ = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < tile.getWayNodeCount(way); i++) {
+                int node = tile.getWayNodeIndex(way, i);
+                if (node != -1) {
+                    // Nodes are parsed with latitude in the longitude slot, matching the lat/lng coordinate state's x axis
+                    double x = tile.getNodeLongitude(node);
+                    double z = tile.getNodeLatitude(node);
+                    wayMinX = Math.min(wayMinX, x);
+                    wayMinZ = Math.min(wayMinZ, z);
+                    wayMaxX = Math.max(wayMaxX, x);
+                    wayMaxZ = Math.max(wayMaxZ, z);
+                }
+            }
+            if (wayMinX > wayMaxX) {
+                continue;
+            }
+
+            indexedWays[count] = way;
+            bounds[count * 4] = wayMinX;
+            bounds[count * 4 + 1] = wayMinZ;
+            bounds[count * 4 + 2] = wayMaxX;
+            bounds[count * 4 + 3] = wayMaxZ;
+            count++;
+
+            minX = Math.min(minX, wayMinX);
+            minZ = Math.min(minZ, wayMinZ);
+            maxX = Math.max(maxX, wayMaxX);
+            maxZ = Math.max(maxZ, wayMaxZ);
+        }
+
+        this.ways = Arrays.copyOf(indexedWays, count);
+        this.bounds = Arrays.copyOf(bounds, count * 4);
+
+        int gridSize = Math.max(1, Math.min(MAX_GRID_SIZE, (int) Math.sqrt(count / 4.0)));
+        this.gridWidth = gridSize;
+        this.gridHeight = gridSize;
+        this.minX = count > 0 ? minX : 0.0;
+        this.minZ = count > 0 ? minZ : 0.0;
+        this.cellWidth = count > 0 ? Math.max((maxX - minX) / gridSize, 1e-9) : 1.0;
+        this.cellHeight = count > 0 ? Math.max((maxZ - minZ) / gridSize, 1e-9) : 1.0;
+
+        this.cellOffsets = new int[gridSize * gridSize + 1];
+        for (int way = 0; way < count; way++) {
+            int minCellX = this.cellX(this.bounds[way * 4]);
+            int minCellZ = this.cellZ(this.bounds[way * 4 + 1]);
+            int maxCellX = this.cellX(this.bounds[way * 4 + 2]);
+            int maxCellZ = this.cellZ(this.bounds[way * 4 + 3]);
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    this.cellOffsets[cellX + cellZ * gridSize + 1]++;
+                }
+            }
+        }
+
+        for (int cell = 0; cell < gridSize * gridSize; cell++) {
+            this.cellOffsets[cell + 1] += this.cellOffsets[cell];
+        }
+
+        this.cellWays = new int[this.cellOffsets[gridSize * gridSize]];
+        int[] cursors = Arrays.copyOf(this.cellOffsets, gridSize * gridSize);
+        for (int way = 0; way < count; way++) {
+            int minCellX = this.cellX(this.bounds[way * 4]);
+            int minCellZ = this.cellZ(this.bounds[way * 4 + 1]);
+            int maxCellX = this.cellX(this.bounds[way * 4 + 2]);
+            int maxCellZ = this.cellZ(this.bounds[way * 4 + 3]);
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    this.cellWays[cursors[cellX + cellZ * gridSize]++] = way;
+                }
+            }
+        }
+    }
+
+    public void query(double minX, double minZ, double maxX, double maxZ, IntConsumer consumer) {
+        if (this.ways.length == 0) {
+            return;
+        }
+
+        int minCellX = this.cellX(minX);
+        int minCellZ = this.cellZ(minZ);
+        int maxCellX = this.cellX(maxX);
+        int maxCellZ = this.cellZ(maxZ);
+
+        for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int cell = cellX + cellZ * this.gridWidth;
+                for (int i = this.cellOffsets[cell]; i < this.cellOffsets[cell + 1]; i++) {
+                    int way = this.cellWays[i];
+                    double wayMinX = this.bounds[way * 4];
+                    double wayMinZ = this.bounds[way * 4 + 1];
+                    if (wayMinX > maxX || wayMinZ > maxZ || this.bounds[way * 4 + 2] < minX || this.bounds[way * 4 + 3] < minZ) {
+                        continue;
+                    }
+                    // Ways spanning several cells are only reported from the first cell shared with the query
+                    if (Math.max(this.cellX(wayMinX), minCellX) == cellX && Math.max(this.cellZ(wayMinZ), minCellZ) == cellZ) {
+                        consumer.accept(this.ways[way]);
+                    }
+                }
+            }
+        }
+    }
+
+    public long estimateMemoryUsage() {
+        return this.ways.length * (Integer.BYTES + 4L * Double.BYTES) + (this.cellOffsets.length + this.cellWays.length) * (long) Integer.BYTES;
+    }
+
+    private int cellX(double x) {
+        return Math.min(Math.max((int) Math.floor((x - this.minX) / this.cellWidth), 0), this.gridWidth - 1);
+    }
+
+    private int cellZ(double z) {
+        return Math.min(Math.max((int) Math.floor((z - this.minZ) / this.cellHeight), 0), this.gridHeight - 1);
+    }
+}
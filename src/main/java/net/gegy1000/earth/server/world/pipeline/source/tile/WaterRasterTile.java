@@ -19,6 +19,18 @@ public class WaterRasterTile extends ShortRasterTile {
         super(view);
     }
 
+    @Override
+    public WaterRasterTile crop(int x, int z, int width, int height) {
+        WaterRasterTile result = new WaterRasterTile(new short[width * height], width, height);
+        this.copyRegionInto(result, x, z, 0, 0, width, height);
+        return result;
+    }
+
+    @Override
+    public WaterRasterTile createEmpty(int width, int height) {
+        return new WaterRasterTile(new short[width * height], width, height);
+    }
+
     public void setWaterType(int localX, int localZ, int type) {
         this.setShort(localX, localZ, (short) (type & WATER_TYPE_MASK));
     }
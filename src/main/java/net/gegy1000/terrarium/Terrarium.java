@@ -4,6 +4,7 @@ import net.gegy1000.earth.server.command.GeoTeleportCommand;
 import net.gegy1000.terrarium.server.ServerProxy;
 import net.gegy1000.terrarium.server.capability.TerrariumCapabilities;
 import net.gegy1000.terrarium.server.message.TerrariumHandshakeMessage;
+import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.generator.customization.TerrariumPresetRegistry;
 import net.gegy1000.terrarium.server.world.pipeline.source.CachedRemoteSource;
 import net.minecraftforge.fml.common.Mod;
@@ -47,6 +48,7 @@ public class Terrarium {
         }
 
         TerrariumCapabilities.onPreInit();
+        TerrariumCoverTypes.register();
 
         network = NetworkRegistry.INSTANCE.newSimpleChannel(Terrarium.MODID);
         network.registerMessage(TerrariumHandshakeMessage.Handler.class, TerrariumHandshakeMessage.class, 0, Side.SERVER);
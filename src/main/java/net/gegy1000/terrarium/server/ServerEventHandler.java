@@ -4,6 +4,7 @@ import com.google.gson.JsonSyntaxException;
 import net.gegy1000.terrarium.Terrarium;
 import net.gegy1000.terrarium.server.capability.TerrariumCapabilities;
 import net.gegy1000.terrarium.server.capability.TerrariumWorldData;
+import net.gegy1000.terrarium.server.util.cache.CacheBudget;
 import net.gegy1000.terrarium.server.world.TerrariumWorldType;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.minecraft.world.DimensionType;
@@ -12,6 +13,7 @@ import net.minecraftforge.event.AttachCapabilitiesEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 @Mod.EventBusSubscriber(modid = Terrarium.MODID)
 public class ServerEventHandler {
@@ -29,6 +31,24 @@ public class ServerEventHandler {
         }
     }
 
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            CacheBudget.update();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        World world = event.world;
+        if (event.phase == TickEvent.Phase.END && ServerEventHandler.shouldHandle(world)) {
+            TerrariumWorldData worldData = world.getCapability(TerrariumCapabilities.worldDataCapability, null);
+            if (worldData != null) {
+                worldData.getPlayerTracker().update(world);
+            }
+        }
+    }
+
     @SubscribeEvent
     public static void onAttachWorldCapabilities(AttachCapabilitiesEvent<World> event) {
         World world = event.getObject();
@@ -7,7 +7,10 @@ import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.generator.ChunkCompositionProcedure;
 import net.gegy1000.terrarium.server.world.generator.TerrariumGenerator;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.TerrariumDataProvider;
 import net.gegy1000.terrarium.server.world.region.GenerationRegionHandler;
+import net.gegy1000.terrarium.server.world.region.PlayerRegionTracker;
+import net.gegy1000.terrarium.server.world.region.RegionDataStore;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
@@ -18,6 +21,8 @@ public interface TerrariumWorldData extends ICapabilityProvider {
 
     GenerationRegionHandler getRegionHandler();
 
+    PlayerRegionTracker getPlayerTracker();
+
     ChunkCompositionProcedure getCompositionProcedure();
 
     Coordinate getSpawnPosition();
@@ -26,6 +31,7 @@ public interface TerrariumWorldData extends ICapabilityProvider {
         private final GenerationSettings settings;
         private final TerrariumGenerator generator;
         private final GenerationRegionHandler regionHandler;
+        private final PlayerRegionTracker playerTracker;
 
         public Implementation(World world, TerrariumWorldType worldType) {
             String generatorOptions = world.getWorldInfo().getGeneratorOptions();
@@ -37,7 +43,10 @@ public interface TerrariumWorldData extends ICapabilityProvider {
 
             TerrariumGeneratorInitializer initializer = worldType.createInitializer(world, this.settings);
             this.generator = initializer.buildGenerator();
-            this.regionHandler = new GenerationRegionHandler(this.settings, initializer.buildDataProvider());
+            TerrariumDataProvider dataProvider = initializer.buildDataProvider();
+            RegionDataStore dataStore = RegionDataStore.create(world.getSaveHandler().getWorldDirectory(), this.settings, dataProvider);
+            this.regionHandler = new GenerationRegionHandler(this.settings, dataProvider, dataStore);
+            this.playerTracker = new PlayerRegionTracker(this.regionHandler);
         }
 
         @Override
@@ -50,6 +59,11 @@ public interface TerrariumWorldData extends ICapabilityProvider {
             return this.regionHandler;
         }
 
+        @Override
+        public PlayerRegionTracker getPlayerTracker() {
+            return this.playerTracker;
+        }
+
         @Override
         public ChunkCompositionProcedure getCompositionProcedure() {
             return this.generator.getCompositionProcedure();
@@ -20,6 +20,17 @@ public class TerrariumConfig {
     @Config.Comment("If true, you will no longer be warned about remote data usage. (Automatically set through GUI)")
     public static boolean acceptedRemoteDataWarning = false;
 
+    @Config.Name("cache_memory_budget")
+    @Config.LangKey("config.terrarium.cache_memory_budget")
+    @Config.Comment("The amount of memory in megabytes that cached regions and data tiles may use. This is reduced automatically when memory runs low")
+    @Config.RangeInt(min = 16)
+    public static int cacheMemoryBudget = 384;
+
+    @Config.Name("log_cache_statistics")
+    @Config.LangKey("config.terrarium.log_cache_statistics")
+    @Config.Comment("If true, cache usage and hit rates will be logged every 5 minutes")
+    public static boolean logCacheStatistics = false;
+
     @SubscribeEvent
     public static void onConfigChanged(ConfigChangedEvent.OnConfigChangedEvent event) {
         if (event.getModID().equals(Terrarium.MODID)) {
@@ -0,0 +1,114 @@
+package net.gegy1000.terrarium.server.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConnectedComponents {
+    private final int width;
+    private final int height;
+
+    private final int[] parent;
+    private final int[] labels;
+
+    public ConnectedComponents(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.parent = new int[width * height];
+        this.labels = new int[width * height];
+    }
+
+    public List<Component> label(byte[] map, byte target, short[] heights) {
+        int width = this.width;
+        int height = this.height;
+        int[] parent = this.parent;
+
+        for (int z = 0; z < height; z++) {
+            int rowIndex = z * width;
+            for (int x = 0; x < width; x++) {
+                int index = rowIndex + x;
+                if (map[index] != target) {
+                    parent[index] = -1;
+                    continue;
+                }
+                parent[index] = index;
+                if (x > 0 && parent[index - 1] != -1) {
+                    this.union(index - 1, index);
+                }
+                if (z > 0 && parent[index - width] != -1) {
+                    this.union(index - width, index);
+                }
+            }
+        }
+
+        int[] labels = this.labels;
+        List<Component> components = new ArrayList<>();
+
+        for (int index = 0; index < parent.length; index++) {
+            if (parent[index] == -1) {
+                continue;
+            }
+            int root = this.find(index);
+            Component component;
+            if (root == index) {
+                labels[index] = components.size();
+                component = new Component();
+                components.add(component);
+            } else {
+                component = components.get(labels[root]);
+            }
+            component.size++;
+            component.totalHeight += heights[index];
+        }
+
+        for (Component component : components) {
+            component.indices = new int[component.size];
+            component.size = 0;
+        }
+
+        for (int index = 0; index < parent.length; index++) {
+            if (parent[index] != -1) {
+                Component component = components.get(labels[this.find(index)]);
+                component.indices[component.size++] = index;
+            }
+        }
+
+        return components;
+    }
+
+    private int find(int index) {
+        int[] parent = this.parent;
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private void union(int a, int b) {
+        int rootA = this.find(a);
+        int rootB = this.find(b);
+        if (rootA < rootB) {
+            this.parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            this.parent[rootA] = rootB;
+        }
+    }
+
+    public static class Component {
+        private int[] indices;
+        private int size;
+        private long totalHeight;
+
+        public int[] getIndices() {
+            return this.indices;
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+
+        public short getAverageHeight() {
+            return (short) (this.totalHeight / this.size);
+        }
+    }
+}
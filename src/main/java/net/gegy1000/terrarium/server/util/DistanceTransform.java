@@ -0,0 +1,108 @@
+package net.gegy1000.terrarium.server.util;
+
+public class DistanceTransform {
+    private final int width;
+    private final int height;
+    private final int infinity;
+
+    private final int[] columnDistance;
+    private final int[] rowDistance;
+    private final int[] envelopeSites;
+    private final double[] envelopeBounds;
+
+    public DistanceTransform(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.infinity = width + height;
+
+        this.columnDistance = new int[width * height];
+        this.rowDistance = new int[width];
+        this.envelopeSites = new int[width];
+        this.envelopeBounds = new double[width + 1];
+    }
+
+    public void computeSquared(byte[] map, byte feature, boolean inverted, int[] result) {
+        this.computeColumns(map, feature, inverted);
+        for (int z = 0; z < this.height; z++) {
+            this.computeRow(z, result);
+        }
+    }
+
+    private void computeColumns(byte[] map, byte feature, boolean inverted) {
+        int width = this.width;
+        int height = this.height;
+        int[] columnDistance = this.columnDistance;
+
+        for (int x = 0; x < width; x++) {
+            int distance = this.infinity;
+            for (int z = 0; z < height; z++) {
+                int index = x + z * width;
+                if ((map[index] == feature) != inverted) {
+                    distance = 0;
+                } else if (distance < this.infinity) {
+                    distance++;
+                }
+                columnDistance[index] = distance;
+            }
+
+            distance = this.infinity;
+            for (int z = height - 1; z >= 0; z--) {
+                int index = x + z * width;
+                if (columnDistance[index] == 0) {
+                    distance = 0;
+                } else {
+                    if (distance < this.infinity) {
+                        distance++;
+                    }
+                    if (distance < columnDistance[index]) {
+                        columnDistance[index] = distance;
+                    }
+                }
+            }
+        }
+    }
+
+    private void computeRow(int z, int[] result) {
+        int width = this.width;
+        int rowIndex = z * width;
+
+        int[] distance = this.rowDistance;
+        int[] sites = this.envelopeSites;
+        double[] bounds = this.envelopeBounds;
+
+        for (int x = 0; x < width; x++) {
+            int column = this.columnDistance[rowIndex + x];
+            distance[x] = column * column;
+        }
+
+        int count = 0;
+        sites[0] = 0;
+        bounds[0] = Double.NEGATIVE_INFINITY;
+        bounds[1] = Double.POSITIVE_INFINITY;
+
+        for (int x = 1; x < width; x++) {
+            double intersection = this.intersect(distance, sites[count], x);
+            while (intersection <= bounds[count]) {
+                count--;
+                intersection = this.intersect(distance, sites[count], x);
+            }
+            count++;
+            sites[count] = x;
+            bounds[count] = intersection;
+            bounds[count + 1] = Double.POSITIVE_INFINITY;
+        }
+
+        int site = 0;
+        for (int x = 0; x < width; x++) {
+            while (bounds[site + 1] < x) {
+                site++;
+            }
+            int deltaX = x - sites[site];
+            result[rowIndex + x] = deltaX * deltaX + distance[sites[site]];
+        }
+    }
+
+    private double intersect(int[] distance, int site, int x) {
+        return ((distance[x] + x * x) - (distance[site] + site * site)) / (2.0 * (x - site));
+    }
+}
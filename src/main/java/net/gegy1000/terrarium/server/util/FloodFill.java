@@ -1,116 +1,175 @@
 package net.gegy1000.terrarium.server.util;
 
-import com.google.common.collect.Sets;
+public class FloodFill {
+    private final int width;
+    private final int height;
 
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+    private final long[] visited;
+    private int[] dirtyWords;
+    private int dirtyCount;
 
-public class FloodFill {
-    public static void floodVisit(int[] map, int width, int height, Point origin, IntVisitor visitor) {
-        Set<Point> visitedPoints = Sets.newHashSet(origin);
-        Queue<Point> points = new LinkedList<>();
-        points.add(origin);
-
-        while (!points.isEmpty()) {
-            Point currentPoint = points.poll();
-            int index = currentPoint.x + currentPoint.y * width;
-            int value = map[index];
-            int visited = visitor.visit(currentPoint, value);
-            if (value != visited) {
-                map[index] = visited;
+    private int[] queue = new int[64];
+    private int queueSize;
+
+    public FloodFill(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.visited = new long[(width * height + 63) >> 6];
+        this.dirtyWords = new int[64];
+    }
+
+    public void floodVisit(int[] map, int originX, int originY, IntVisitor visitor) {
+        this.fill(originX, originY, new Cell() {
+            @Override
+            public boolean canVisit(int x, int y, int index) {
+                return visitor.canVisit(x, y, map[index]);
             }
 
-            for (Offset offset : Offset.VALUES) {
-                Point neighbourPoint = offset.offset(currentPoint);
-                if (neighbourPoint.x >= 0 && neighbourPoint.y >= 0 && neighbourPoint.x < width && neighbourPoint.y < height) {
-                    int sampled = map[neighbourPoint.x + neighbourPoint.y * width];
-                    if (visitor.canVisit(neighbourPoint, sampled)) {
-                        FloodFill.visitNeighbour(points, visitedPoints, neighbourPoint);
-                    }
-                }
+            @Override
+            public void visit(int x, int y, int index) {
+                map[index] = visitor.visit(x, y, map[index]);
             }
-        }
+        });
     }
 
-    public static void floodVisit(short[] map, int width, int height, Point origin, ShortVisitor visitor) {
-        Set<Point> visitedPoints = Sets.newHashSet(origin);
-        Queue<Point> points = new LinkedList<>();
-        points.add(origin);
-
-        while (!points.isEmpty()) {
-            Point currentPoint = points.poll();
-            int index = currentPoint.x + currentPoint.y * width;
-            short value = map[index];
-            short visited = visitor.visit(currentPoint, value);
-            if (value != visited) {
-                map[index] = visited;
+    public void floodVisit(short[] map, int originX, int originY, ShortVisitor visitor) {
+        this.fill(originX, originY, new Cell() {
+            @Override
+            public boolean canVisit(int x, int y, int index) {
+                return visitor.canVisit(x, y, map[index]);
             }
 
-            for (Offset offset : Offset.VALUES) {
-                Point neighbourPoint = offset.offset(currentPoint);
-                if (neighbourPoint.x >= 0 && neighbourPoint.y >= 0 && neighbourPoint.x < width && neighbourPoint.y < height) {
-                    short sampled = map[neighbourPoint.x + neighbourPoint.y * width];
-                    if (visitor.canVisit(neighbourPoint, sampled)) {
-                        FloodFill.visitNeighbour(points, visitedPoints, neighbourPoint);
-                    }
-                }
+            @Override
+            public void visit(int x, int y, int index) {
+                map[index] = visitor.visit(x, y, map[index]);
+            }
+        });
+    }
+
+    public void floodVisit(byte[] map, int originX, int originY, ByteVisitor visitor) {
+        this.fill(originX, originY, new Cell() {
+            @Override
+            public boolean canVisit(int x, int y, int index) {
+                return visitor.canVisit(x, y, map[index]);
+            }
+
+            @Override
+            public void visit(int x, int y, int index) {
+                map[index] = visitor.visit(x, y, map[index]);
+            }
+        });
+    }
+
+    private void fill(int originX, int originY, Cell cell) {
+        this.clearVisited();
+        this.queueSize = 0;
+
+        int width = this.width;
+
+        int originIndex = originX + originY * width;
+        this.markVisited(originIndex);
+        this.push(originIndex);
+
+        while (this.queueSize > 0) {
+            int index = this.queue[--this.queueSize];
+            int y = index / width;
+            int x = index - y * width;
+            int rowIndex = y * width;
+
+            int minX = x;
+            while (minX > 0 && !this.isVisited(rowIndex + minX - 1) && cell.canVisit(minX - 1, y, rowIndex + minX - 1)) {
+                this.markVisited(rowIndex + --minX);
+            }
+            int maxX = x;
+            while (maxX < width - 1 && !this.isVisited(rowIndex + maxX + 1) && cell.canVisit(maxX + 1, y, rowIndex + maxX + 1)) {
+                this.markVisited(rowIndex + ++maxX);
+            }
+
+            for (int spanX = minX; spanX <= maxX; spanX++) {
+                cell.visit(spanX, y, rowIndex + spanX);
+            }
+
+            if (y > 0) {
+                this.scanRow(cell, minX, maxX, y - 1);
+            }
+            if (y < this.height - 1) {
+                this.scanRow(cell, minX, maxX, y + 1);
             }
         }
     }
 
-    public static <T> void floodVisit(T[] map, int width, int height, Point origin, Visitor<T> visitor) {
-        Set<Point> visitedPoints = Sets.newHashSet(origin);
-        Queue<Point> points = new LinkedList<>();
-        points.add(origin);
-
-        while (!points.isEmpty()) {
-            Point currentPoint = points.poll();
-            int index = currentPoint.x + currentPoint.y * width;
-            T value = map[index];
-            T visited = visitor.visit(currentPoint, value);
-            if (value != visited) {
-                if (visited == null) {
-                    return;
+    private void scanRow(Cell cell, int minX, int maxX, int y) {
+        int rowIndex = y * this.width;
+        boolean inSpan = false;
+        for (int x = minX; x <= maxX; x++) {
+            int index = rowIndex + x;
+            if (!this.isVisited(index) && cell.canVisit(x, y, index)) {
+                if (!inSpan) {
+                    this.markVisited(index);
+                    this.push(index);
+                    inSpan = true;
                 }
-                map[index] = visited;
+            } else {
+                inSpan = false;
             }
+        }
+    }
 
-            for (Offset offset : Offset.VALUES) {
-                Point neighbourPoint = offset.offset(currentPoint);
-                if (neighbourPoint.x >= 0 && neighbourPoint.y >= 0 && neighbourPoint.x < width && neighbourPoint.y < height) {
-                    T sampled = map[neighbourPoint.x + neighbourPoint.y * width];
-                    if (visitor.canVisit(neighbourPoint, sampled)) {
-                        FloodFill.visitNeighbour(points, visitedPoints, neighbourPoint);
-                    }
-                }
+    private void push(int index) {
+        if (this.queueSize >= this.queue.length) {
+            int[] queue = new int[this.queue.length << 1];
+            System.arraycopy(this.queue, 0, queue, 0, this.queueSize);
+            this.queue = queue;
+        }
+        this.queue[this.queueSize++] = index;
+    }
+
+    private boolean isVisited(int index) {
+        return (this.visited[index >> 6] & (1L << index)) != 0;
+    }
+
+    private void markVisited(int index) {
+        int word = index >> 6;
+        if (this.visited[word] == 0) {
+            if (this.dirtyCount >= this.dirtyWords.length) {
+                int[] dirtyWords = new int[this.dirtyWords.length << 1];
+                System.arraycopy(this.dirtyWords, 0, dirtyWords, 0, this.dirtyCount);
+                this.dirtyWords = dirtyWords;
             }
+            this.dirtyWords[this.dirtyCount++] = word;
         }
+        this.visited[word] |= 1L << index;
     }
 
-    private static void visitNeighbour(Queue<Point> points, Set<Point> visitedPoints, Point neighbourPoint) {
-        if (!visitedPoints.contains(neighbourPoint)) {
-            points.add(neighbourPoint);
-            visitedPoints.add(neighbourPoint);
+    private void clearVisited() {
+        for (int i = 0; i < this.dirtyCount; i++) {
+            this.visited[this.dirtyWords[i]] = 0;
         }
+        this.dirtyCount = 0;
     }
 
-    public interface Visitor<T> {
-        T visit(Point point, T sampled);
+    private interface Cell {
+        boolean canVisit(int x, int y, int index);
 
-        boolean canVisit(Point point, T sampled);
+        void visit(int x, int y, int index);
     }
 
     public interface IntVisitor {
-        int visit(Point point, int sampled);
+        int visit(int x, int y, int sampled);
 
-        boolean canVisit(Point point, int sampled);
+        boolean canVisit(int x, int y, int sampled);
     }
 
     public interface ShortVisitor {
-        short visit(Point point, short sampled);
+        short visit(int x, int y, short sampled);
 
-        boolean canVisit(Point point, short sampled);
+        boolean canVisit(int x, int y, short sampled);
+    }
+
+    public interface ByteVisitor {
+        byte visit(int x, int y, byte sampled);
+
+        boolean canVisit(int x, int y, byte sampled);
     }
 
     public static class Point {
@@ -141,28 +200,7 @@ public class FloodFill {
 
         @Override
         public int hashCode() {
-            return this.x ^ (this.y << 16);
-        }
-    }
-
-    private enum Offset {
-        UP(0, 1),
-        DOWN(0, -1),
-        LEFT(-1, 0),
-        RIGHT(1, 0);
-
-        private static final Offset[] VALUES = values();
-
-        private final int offsetX;
-        private final int offsetY;
-
-        Offset(int offsetX, int offsetY) {
-            this.offsetX = offsetX;
-            this.offsetY = offsetY;
-        }
-
-        public Point offset(Point point) {
-            return new Point(point.x + this.offsetX, point.y + this.offsetY);
+            return this.x * 31 + this.y;
         }
     }
 }
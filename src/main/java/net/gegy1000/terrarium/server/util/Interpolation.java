@@ -3,6 +3,7 @@ package net.gegy1000.terrarium.server.util;
 import net.minecraft.util.math.MathHelper;
 
 import java.awt.Point;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 public class Interpolation {
@@ -145,6 +146,15 @@ public class Interpolation {
             return this.lerp(buffer, intermediate);
         }
 
+        public void computeWeights(double intermediate, double[] weights) {
+            double[] basis = this.getBuffer();
+            for (int point = 0; point < this.pointCount; point++) {
+                Arrays.fill(basis, 0.0);
+                basis[point] = 1.0;
+                weights[point] = this.calculateLerp(basis, intermediate);
+            }
+        }
+
         public double lerp2d(double[][] buffer, double intermediateX, double intermediateY) {
             double[] verticalSampleBuffer = this.getBuffer();
             for (int sampleX = 0; sampleX < this.pointCount; sampleX++) {
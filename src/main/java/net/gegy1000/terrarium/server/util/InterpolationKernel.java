@@ -0,0 +1,65 @@
+package net.gegy1000.terrarium.server.util;
+
+import net.minecraft.util.math.MathHelper;
+
+public class InterpolationKernel {
+    private final int size;
+    private final int pointCount;
+    private final int[] origins;
+    private final double[] weights;
+
+    private InterpolationKernel(int size, int pointCount, int[] origins, double[] weights) {
+        this.size = size;
+        this.pointCount = pointCount;
+        this.origins = origins;
+        this.weights = weights;
+    }
+
+    public static InterpolationKernel create(Interpolation.Method method, int size, double scaleFactor, double offset) {
+        int pointCount = method.getPointCount();
+        int backward = method.getBackward();
+
+        int[] origins = new int[size];
+        double[] weights = new double[size * pointCount];
+        double[] pointWeights = new double[pointCount];
+
+        for (int index = 0; index < size; index++) {
+            double sample = index * scaleFactor + offset;
+            int origin = MathHelper.floor(sample);
+            method.computeWeights(sample - origin, pointWeights);
+
+            origins[index] = origin - backward;
+            System.arraycopy(pointWeights, 0, weights, index * pointCount, pointCount);
+        }
+
+        return new InterpolationKernel(size, pointCount, origins, weights);
+    }
+
+    public void apply(double[] input, int inputOffset, int inputStride, double[] output, int outputOffset, int outputStride) {
+        int pointCount = this.pointCount;
+        int[] origins = this.origins;
+        double[] weights = this.weights;
+        for (int index = 0; index < this.size; index++) {
+            int sourceIndex = inputOffset + origins[index] * inputStride;
+            int weightIndex = index * pointCount;
+            double value = 0.0;
+            for (int point = 0; point < pointCount; point++) {
+                value += input[sourceIndex] * weights[weightIndex + point];
+                sourceIndex += inputStride;
+            }
+            output[outputOffset + index * outputStride] = value;
+        }
+    }
+
+    public int getMinOrigin() {
+        return this.origins[0];
+    }
+
+    public int getMaxOrigin() {
+        return this.origins[this.size - 1] + this.pointCount;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+}
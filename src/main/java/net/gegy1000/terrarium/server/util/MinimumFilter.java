@@ -0,0 +1,55 @@
+package net.gegy1000.terrarium.server.util;
+
+public class MinimumFilter {
+    private short[] padded = new short[0];
+    private short[] prefix = new short[0];
+    private short[] suffix = new short[0];
+
+    public void filterRow(short[] input, int inputOffset, int length, int radius, short[] output, int outputOffset) {
+        if (radius <= 0) {
+            System.arraycopy(input, inputOffset, output, outputOffset, length);
+            return;
+        }
+
+        int windowSize = radius * 2 + 1;
+        int paddedLength = length + radius * 2;
+        this.ensureCapacity(paddedLength);
+
+        short[] padded = this.padded;
+        short[] prefix = this.prefix;
+        short[] suffix = this.suffix;
+
+        for (int i = 0; i < paddedLength; i++) {
+            int sourceIndex = i - radius;
+            padded[i] = sourceIndex >= 0 && sourceIndex < length ? input[inputOffset + sourceIndex] : Short.MAX_VALUE;
+        }
+
+        for (int i = 0; i < paddedLength; i++) {
+            if (i % windowSize == 0) {
+                prefix[i] = padded[i];
+            } else {
+                prefix[i] = (short) Math.min(prefix[i - 1], padded[i]);
+            }
+        }
+
+        for (int i = paddedLength - 1; i >= 0; i--) {
+            if (i == paddedLength - 1 || i % windowSize == windowSize - 1) {
+                suffix[i] = padded[i];
+            } else {
+                suffix[i] = (short) Math.min(suffix[i + 1], padded[i]);
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = (short) Math.min(suffix[i], prefix[i + windowSize - 1]);
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (this.padded.length < length) {
+            this.padded = new short[length];
+            this.prefix = new short[length];
+            this.suffix = new short[length];
+        }
+    }
+}
@@ -9,8 +9,6 @@ public class Voronoi {
     private static final long PRIME_1 = 22075533469133L;
     private static final long PRIME_2 = 25293517046197L;
 
-    private final Random random;
-
     private final DistanceFunc distanceFunc;
     private final double fuzzRange;
     private final int gridSize;
@@ -21,12 +19,12 @@ public class Voronoi {
         this.fuzzRange = fuzzRange;
         this.gridSize = gridSize;
 
-        this.random = new Random(seed);
-        this.seed = this.random.nextLong() ^ this.random.nextLong();
+        Random random = new Random(seed);
+        this.seed = random.nextLong() ^ random.nextLong();
     }
 
-    public <T> void scale(T[] input, T[] output, DataView sourceView, DataView scaledView,
-                          double scaleFactorX, double scaleFactorY, double originOffsetX, double originOffsetY
+    public void scale(byte[] input, byte[] output, DataView sourceView, DataView scaledView,
+                      double scaleFactorX, double scaleFactorY, double originOffsetX, double originOffsetY
     ) {
         double scaledOffsetX = originOffsetX / scaleFactorX;
         double scaledOffsetY = originOffsetY / scaleFactorY;
@@ -34,42 +32,72 @@ public class Voronoi {
         int scaledWidth = scaledView.getWidth();
         int scaledHeight = scaledView.getHeight();
 
+        int firstOriginX = MathHelper.floor(originOffsetY);
+        int lastOriginX = MathHelper.floor((scaledWidth - 1) * scaleFactorX + originOffsetY);
+        int firstOriginY = MathHelper.floor(originOffsetX);
+        int lastOriginY = MathHelper.floor((scaledHeight - 1) * scaleFactorY + originOffsetX);
+
+        CellGrid grid = this.createGrid(sourceView,
+                Math.min(firstOriginX, lastOriginX) - 1, Math.min(firstOriginY, lastOriginY) - 1,
+                Math.max(firstOriginX, lastOriginX) + 1, Math.max(firstOriginY, lastOriginY) + 1,
+                scaleFactorX, scaleFactorY
+        );
+
         for (int scaledY = 0; scaledY < scaledHeight; scaledY++) {
             double sampleY = scaledY * scaleFactorY + originOffsetX;
             int originY = MathHelper.floor(sampleY);
+            double pointY = scaledY + scaledOffsetY;
 
             for (int scaledX = 0; scaledX < scaledWidth; scaledX++) {
                 double sampleX = scaledX * scaleFactorX + originOffsetY;
                 int originX = MathHelper.floor(sampleX);
+                double pointX = scaledX + scaledOffsetX;
 
-                T cellValue = this.getCellValue(input, sourceView, originX, originY, scaledX + scaledOffsetX, scaledY + scaledOffsetY, scaleFactorX, scaleFactorY);
-                output[scaledX + scaledY * scaledWidth] = cellValue;
+                int cellIndex = this.findNearestCell(grid, originX, originY, pointX, pointY);
+                output[scaledX + scaledY * scaledWidth] = input[cellIndex];
             }
         }
     }
 
-    private <T> T getCellValue(T[] input, DataView sourceView,
-                               int originX, int originY, double scaledX, double scaledY,
-                               double scaleFactorX, double scaleFactorY
-    ) {
-        T cellValue = null;
+    private CellGrid createGrid(DataView sourceView, int minX, int minY, int maxX, int maxY, double scaleFactorX, double scaleFactorY) {
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+
+        CellGrid grid = new CellGrid(minX, minY, width, height);
+        for (int localY = 0; localY < height; localY++) {
+            int cellY = localY + minY;
+            for (int localX = 0; localX < width; localX++) {
+                int cellX = localX + minX;
+                int index = localX + localY * width;
+
+                long hash = this.hashCell(cellX + sourceView.getX(), cellY + sourceView.getY());
+                grid.centreX[index] = this.fuzzPoint((int) hash, cellX) / scaleFactorX;
+                grid.centreY[index] = this.fuzzPoint((int) (hash >>> 32), cellY) / scaleFactorY;
+                grid.sourceIndex[index] = this.getClampedIndex(sourceView.getWidth(), sourceView.getHeight(), cellX, cellY);
+            }
+        }
+
+        return grid;
+    }
+
+    private int findNearestCell(CellGrid grid, int originX, int originY, double pointX, double pointY) {
+        int cellIndex = 0;
         double selectionDistance = Double.MAX_VALUE;
         for (int neighbourY = originY - 1; neighbourY <= originY + 1; neighbourY++) {
+            int rowIndex = (neighbourY - grid.minY) * grid.width - grid.minX;
             for (int neighbourX = originX - 1; neighbourX <= originX + 1; neighbourX++) {
-                this.random.setSeed(this.getCellSeed(neighbourX + sourceView.getX(), neighbourY + sourceView.getY(), this.seed));
-                double fuzzedX = this.fuzzPoint(neighbourX) / scaleFactorX;
-                double fuzzedY = this.fuzzPoint(neighbourY) / scaleFactorY;
-                double distance = this.distanceFunc.get(scaledX, scaledY, fuzzedX, fuzzedY);
+                int index = rowIndex + neighbourX;
+                double distance = this.distanceFunc.get(pointX, pointY, grid.centreX[index], grid.centreY[index]);
                 if (distance < selectionDistance) {
                     selectionDistance = distance;
-                    cellValue = this.getClamped(input, sourceView.getWidth(), sourceView.getHeight(), neighbourX, neighbourY);
+                    cellIndex = grid.sourceIndex[index];
                 }
             }
         }
-        return cellValue;
+        return cellIndex;
     }
 
-    private <T> T getClamped(T[] input, int width, int height, int x, int y) {
+    private int getClampedIndex(int width, int height, int x, int y) {
         if (x < 0) {
             x = 0;
         } else if (x >= width) {
@@ -80,16 +108,37 @@ public class Voronoi {
         } else if (y >= height) {
             y = height - 1;
         }
-        return input[x + y * width];
+        return x + y * width;
     }
 
-    private double fuzzPoint(double point) {
-        double offset = (double) this.random.nextInt(this.gridSize) / this.gridSize;
+    private double fuzzPoint(int hash, double point) {
+        double offset = (double) Math.floorMod(hash, this.gridSize) / this.gridSize;
         return point + 0.5 + (offset - 0.5) * this.fuzzRange;
     }
 
-    private long getCellSeed(int x, int y, long seed) {
-        return (x * PRIME_1 + y * PRIME_2) ^ seed;
+    private long hashCell(int x, int y) {
+        long hash = (x * PRIME_1 + y * PRIME_2) ^ this.seed;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static class CellGrid {
+        private final int minX;
+        private final int minY;
+        private final int width;
+        private final double[] centreX;
+        private final double[] centreY;
+        private final int[] sourceIndex;
+
+        private CellGrid(int minX, int minY, int width, int height) {
+            this.minX = minX;
+            this.minY = minY;
+            this.width = width;
+            this.centreX = new double[width * height];
+            this.centreY = new double[width * height];
+            this.sourceIndex = new int[width * height];
+        }
     }
 
     public enum DistanceFunc {
@@ -0,0 +1,151 @@
+package net.gegy1000.terrarium.server.util.cache;
+
+import net.gegy1000.terrarium.Terrarium;
+import net.gegy1000.terrarium.server.config.TerrariumConfig;
+
+import javax.management.NotificationEmitter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+public class CacheBudget {
+    private static final double PRESSURE_THRESHOLD = 0.85;
+    private static final double RECOVERY_THRESHOLD = 0.6;
+    private static final double MIN_PRESSURE_FACTOR = 0.125;
+
+    private static final long RECOVERY_INTERVAL = 10 * 1000;
+    private static final long STATISTICS_INTERVAL = 5 * 60 * 1000;
+
+    private static final Set<WeightedCache<?, ?>> CACHES = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private static volatile double pressureFactor = 1.0;
+
+    private static long lastRecoveryTime;
+    private static long lastStatisticsTime = System.currentTimeMillis();
+
+    static {
+        CacheBudget.registerPressureListener();
+    }
+
+    static void register(WeightedCache<?, ?> cache) {
+        synchronized (CACHES) {
+            CACHES.add(cache);
+        }
+    }
+
+    public static long getLimit() {
+        return (long) (TerrariumConfig.cacheMemoryBudget * 1024L * 1024L * pressureFactor);
+    }
+
+    public static long getTotalWeight() {
+        synchronized (CACHES) {
+            long totalWeight = 0;
+            for (WeightedCache<?, ?> cache : CACHES) {
+                totalWeight += cache.getWeight();
+            }
+            return totalWeight;
+        }
+    }
+
+    public static void enforce() {
+        long limit = CacheBudget.getLimit();
+        synchronized (CACHES) {
+            long totalWeight = CacheBudget.getTotalWeight();
+            while (totalWeight > limit) {
+                WeightedCache<?, ?> eldestCache = null;
+                long eldestAccess = Long.MAX_VALUE;
+                for (WeightedCache<?, ?> cache : CACHES) {
+                    long access = cache.getEldestAccess();
+                    if (access < eldestAccess) {
+                        eldestCache = cache;
+                        eldestAccess = access;
+                    }
+                }
+                if (eldestCache == null) {
+                    break;
+                }
+                long weight = eldestCache.getWeight();
+                eldestCache.evictEldest();
+                totalWeight -= weight - eldestCache.getWeight();
+            }
+        }
+    }
+
+    public static void update() {
+        long time = System.currentTimeMillis();
+        if (pressureFactor < 1.0 && time - lastRecoveryTime > RECOVERY_INTERVAL) {
+            lastRecoveryTime = time;
+            if (CacheBudget.getHeapUsageAfterCollection() < RECOVERY_THRESHOLD) {
+                pressureFactor = Math.min(pressureFactor * 2.0, 1.0);
+            }
+        }
+
+        if (TerrariumConfig.logCacheStatistics && time - lastStatisticsTime > STATISTICS_INTERVAL) {
+            lastStatisticsTime = time;
+            CacheBudget.logStatistics();
+        }
+    }
+
+    public static void logStatistics() {
+        List<WeightedCache<?, ?>> caches;
+        synchronized (CACHES) {
+            caches = new ArrayList<>(CACHES);
+        }
+        Terrarium.LOGGER.info("Cache usage {}/{} KiB (pressure factor {})", CacheBudget.getTotalWeight() / 1024, CacheBudget.getLimit() / 1024, pressureFactor);
+        for (WeightedCache<?, ?> cache : caches) {
+            long hits = cache.getHitCount();
+            long requests = hits + cache.getMissCount();
+            double hitRate = requests > 0 ? (double) hits / requests : 0.0;
+            Terrarium.LOGGER.info(" - {}: {} entries, {} KiB, {} hits, {} misses ({}% hit rate), {} evictions",
+                    cache.getName(), cache.size(), cache.getWeight() / 1024, hits, cache.getMissCount(), Math.round(hitRate * 100.0), cache.getEvictionCount());
+        }
+    }
+
+    private static void onMemoryPressure() {
+        pressureFactor = Math.max(pressureFactor * 0.5, MIN_PRESSURE_FACTOR);
+        lastRecoveryTime = System.currentTimeMillis();
+        Terrarium.LOGGER.debug("Reducing cache budget to {} KiB due to memory pressure", CacheBudget.getLimit() / 1024);
+        CacheBudget.enforce();
+    }
+
+    private static double getHeapUsageAfterCollection() {
+        double usage = 0.0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                MemoryUsage collectionUsage = pool.getCollectionUsage();
+                if (collectionUsage != null && collectionUsage.getMax() > 0) {
+                    usage = Math.max(usage, (double) collectionUsage.getUsed() / collectionUsage.getMax());
+                }
+            }
+        }
+        return usage;
+    }
+
+    private static void registerPressureListener() {
+        try {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                    long max = pool.getUsage().getMax();
+                    if (max > 0 && pool.getCollectionUsageThreshold() == 0) {
+                        pool.setCollectionUsageThreshold((long) (max * PRESSURE_THRESHOLD));
+                    }
+                }
+            }
+            NotificationEmitter emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+            emitter.addNotificationListener((notification, handback) -> {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                    CacheBudget.onMemoryPressure();
+                }
+            }, null, null);
+        } catch (Exception e) {
+            Terrarium.LOGGER.warn("Failed to register memory pressure listener", e);
+        }
+    }
+}
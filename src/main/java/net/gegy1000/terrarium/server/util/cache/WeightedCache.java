@@ -0,0 +1,205 @@
+package net.gegy1000.terrarium.server.util.cache;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+public class WeightedCache<K, V> {
+    private final String name;
+    private final ToLongFunction<V> weigher;
+    private final long expireAfterAccess;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private volatile long weight;
+
+    public WeightedCache(String name, ToLongFunction<V> weigher, long expireAfterAccess, TimeUnit unit) {
+        this.name = name;
+        this.weigher = weigher;
+        this.expireAfterAccess = unit.toMillis(expireAfterAccess);
+        CacheBudget.register(this);
+    }
+
+    @Nullable
+    public V getIfPresent(K key) {
+        synchronized (this) {
+            long time = System.currentTimeMillis();
+            this.removeExpired(time);
+
+            Entry<V> entry = this.entries.get(key);
+            if (entry != null) {
+                entry.lastAccess = time;
+                this.hitCount.incrementAndGet();
+                return entry.value;
+            }
+        }
+        this.missCount.incrementAndGet();
+        return null;
+    }
+
+    public synchronized boolean contains(K key) {
+        return this.entries.containsKey(key);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V value = this.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.loading.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Failed to load " + key + " in " + this.name, e.getCause());
+            }
+        }
+
+        return this.load(key, future, loader);
+    }
+
+    public CompletableFuture<V> getAsync(K key, Function<K, V> loader, Executor executor) {
+        V value = this.getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        executor.execute(() -> {
+            try {
+                this.load(key, future, loader);
+            } catch (Throwable t) {
+                // Already propagated through the future
+            }
+        });
+
+        return future;
+    }
+
+    private V load(K key, CompletableFuture<V> future, Function<K, V> loader) {
+        try {
+            synchronized (this) {
+                Entry<V> entry = this.entries.get(key);
+                if (entry != null) {
+                    future.complete(entry.value);
+                    return entry.value;
+                }
+            }
+            V value = loader.apply(key);
+            this.put(key, value);
+            future.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors must complete the future too, otherwise waiters block forever
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            this.loading.remove(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        long valueWeight = Math.max(this.weigher.applyAsLong(value), 1);
+        synchronized (this) {
+            Entry<V> previous = this.entries.put(key, new Entry<>(value, valueWeight, System.currentTimeMillis()));
+            long weight = this.weight + valueWeight;
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            this.weight = weight;
+        }
+        CacheBudget.enforce();
+    }
+
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    synchronized long getEldestAccess() {
+        Iterator<Entry<V>> iterator = this.entries.values().iterator();
+        if (iterator.hasNext()) {
+            return iterator.next().lastAccess;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    synchronized void evictEldest() {
+        Iterator<Entry<V>> iterator = this.entries.values().iterator();
+        if (iterator.hasNext()) {
+            this.weight -= iterator.next().weight;
+            iterator.remove();
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    private void removeExpired(long time) {
+        Iterator<Entry<V>> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (time - entry.lastAccess < this.expireAfterAccess) {
+                break;
+            }
+            this.weight -= entry.weight;
+            iterator.remove();
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getWeight() {
+        return this.weight;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long weight;
+        private long lastAccess;
+
+        private Entry(V value, long weight, long lastAccess) {
+            this.value = value;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
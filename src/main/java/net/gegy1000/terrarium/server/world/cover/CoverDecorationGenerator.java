@@ -26,7 +26,7 @@ public abstract class CoverDecorationGenerator<T extends CoverGenerationContext>
             int scatterX = random.nextInt(16);
             int scatterZ = random.nextInt(16);
 
-            if (coverRaster.get(scatterX, scatterZ) == this.coverType) {
+            if (coverRaster.getCoverId(scatterX, scatterZ) == this.coverId) {
                 this.mutablePos.setPos(originX + scatterX, 0, originZ + scatterZ);
 
                 if (this.tryPlace(random, this.mutablePos, scatterX, scatterZ)) {
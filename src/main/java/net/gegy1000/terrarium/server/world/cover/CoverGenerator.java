@@ -25,6 +25,9 @@ import net.minecraft.world.gen.layer.IntCache;
 import java.util.Random;
 
 public abstract class CoverGenerator<T extends CoverGenerationContext> {
+    // Cover generators share contexts and the vanilla IntCache, so they can only run on one thread at a time
+    public static final Object GENERATION_LOCK = new Object();
+
     public static final int MOUNTAINOUS_SLOPE = 20;
     public static final int CLIFF_SLOPE = 70;
     public static final int EXTREME_CLIFF_SLOPE = 150;
@@ -84,17 +87,19 @@ public abstract class CoverGenerator<T extends CoverGenerationContext> {
     protected final T context;
 
     protected final CoverType<T> coverType;
+    protected final int coverId;
 
     protected CoverGenerator(T context, CoverType<T> coverType) {
         this.context = context;
         this.coverType = coverType;
+        this.coverId = CoverTypeRegistry.getId(coverType);
     }
 
     protected final void iterateChunk(PointConsumer handler) {
         CoverRasterTile coverRaster = this.context.getCoverRaster();
         for (int localZ = 0; localZ < 16; localZ++) {
             for (int localX = 0; localX < 16; localX++) {
-                if (coverRaster.get(localX, localZ) == this.coverType) {
+                if (coverRaster.getCoverId(localX, localZ) == this.coverId) {
                     handler.handlePoint(localX, localZ);
                 }
             }
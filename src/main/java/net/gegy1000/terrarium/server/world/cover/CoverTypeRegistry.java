@@ -0,0 +1,61 @@
+package net.gegy1000.terrarium.server.world.cover;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.util.ResourceLocation;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+public class CoverTypeRegistry {
+    public static final int MAX_TYPES = 256;
+
+    private static final BiMap<ResourceLocation, CoverType<?>> REGISTRY = HashBiMap.create();
+    private static final Reference2IntMap<CoverType<?>> IDS = new Reference2IntOpenHashMap<>();
+
+    private static volatile CoverType<?>[] byId = new CoverType<?>[0];
+
+    static {
+        IDS.defaultReturnValue(-1);
+    }
+
+    public static synchronized void register(ResourceLocation identifier, CoverType<?> coverType) {
+        if (REGISTRY.containsKey(identifier)) {
+            throw new IllegalArgumentException("Cover type with identifier " + identifier + " already registered!");
+        }
+        if (REGISTRY.size() >= MAX_TYPES) {
+            throw new IllegalStateException("Cannot register more than " + MAX_TYPES + " cover types!");
+        }
+        int id = REGISTRY.size();
+        REGISTRY.put(identifier, coverType);
+        IDS.put(coverType, id);
+
+        CoverType<?>[] byId = Arrays.copyOf(CoverTypeRegistry.byId, id + 1);
+        byId[id] = coverType;
+        CoverTypeRegistry.byId = byId;
+    }
+
+    @Nullable
+    public static synchronized CoverType<?> get(ResourceLocation identifier) {
+        return REGISTRY.get(identifier);
+    }
+
+    @Nullable
+    public static synchronized ResourceLocation getIdentifier(CoverType<?> coverType) {
+        return REGISTRY.inverse().get(coverType);
+    }
+
+    public static int getId(CoverType<?> coverType) {
+        int id = IDS.getInt(coverType);
+        if (id == -1) {
+            throw new IllegalArgumentException("Cover type " + coverType + " is not registered!");
+        }
+        return id;
+    }
+
+    public static CoverType<?> byId(int id) {
+        return byId[id];
+    }
+}
@@ -1,8 +1,15 @@
 package net.gegy1000.terrarium.server.world.cover;
 
+import net.gegy1000.terrarium.Terrarium;
 import net.gegy1000.terrarium.server.world.cover.generator.PlaceholderCover;
+import net.minecraft.util.ResourceLocation;
 
 public class TerrariumCoverTypes {
     public static final CoverType<CoverGenerationContext> PLACEHOLDER = new PlaceholderCover();
     public static final CoverType<CoverGenerationContext> DEBUG = new PlaceholderCover();
+
+    public static void register() {
+        CoverTypeRegistry.register(new ResourceLocation(Terrarium.MODID, "placeholder"), PLACEHOLDER);
+        CoverTypeRegistry.register(new ResourceLocation(Terrarium.MODID, "debug"), DEBUG);
+    }
 }
@@ -1,29 +1,215 @@
 package net.gegy1000.terrarium.server.world.pipeline;
 
+import net.gegy1000.terrarium.server.util.cache.WeightedCache;
+import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.CroppableTile;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
-import java.util.HashMap;
+import javax.annotation.Nullable;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public abstract class CachedDataProducer<T extends TiledDataAccess> implements DataLayerProducer<T> {
-    private final Map<DataView, T> cache = new HashMap<>();
+    private static final int INDEX_CELL_SIZE = 256;
+
+    private final WeightedCache<DataView, Entry<T>> cache = new WeightedCache<>(this.getClass().getSimpleName(), entry -> entry.value.estimateMemoryUsage(), 30, TimeUnit.SECONDS);
+
+    // Cached croppable views bucketed by the cell of their origin, so overlapping views can be found without scanning the cache
+    private final Map<Long, Set<DataView>> croppableIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger indexedCount = new AtomicInteger();
+    private volatile int maxIndexedWidth;
+    private volatile int maxIndexedHeight;
 
     @Override
     public void reset() {
-        this.cache.clear();
+        this.cache.invalidateAll();
+        this.croppableIndex.clear();
+        this.indexedCount.set(0);
     }
 
     @Override
     public final T apply(DataView view) {
-        T cached = this.cache.get(view);
-        if (cached != null) {
-            return cached;
+        return this.getEntry(view).value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final T applyMutable(DataView view) {
+        Entry<T> entry = this.getEntry(view);
+        if (entry.shared && entry.value instanceof CroppableTile) {
+            return (T) ((CroppableTile<?>) entry.value).crop(0, 0, view.getWidth(), view.getHeight());
+        }
+        return entry.value;
+    }
+
+    private Entry<T> getEntry(DataView view) {
+        int failedLoads = TiledDataSource.getFailedLoads();
+        Entry<T> entry = this.findEntry(view);
+
+        // Failures behind a cached result are replayed, so regions built from fallback data are still kept out of the store
+        int unmarkedFailedLoads = entry.failedLoads - (TiledDataSource.getFailedLoads() - failedLoads);
+        if (unmarkedFailedLoads > 0) {
+            TiledDataSource.markFailedLoads(unmarkedFailedLoads);
         }
 
-        T result = this.create(view);
-        this.cache.put(view, result);
-        return result;
+        return entry;
+    }
+
+    private Entry<T> findEntry(DataView view) {
+        if (!this.cache.contains(view)) {
+            DataView cachedView = this.findOverlappingView(view);
+            Entry<T> cached = cachedView != null ? this.cache.getIfPresent(cachedView) : null;
+            if (cached != null) {
+                if (cachedView.contains(view)) {
+                    return this.crop(cached, cachedView, view);
+                }
+                return this.getOrCreate(view, v -> this.stitch(cached, cachedView, v));
+            }
+        }
+        return this.getOrCreate(view, this::createEntry);
+    }
+
+    private Entry<T> getOrCreate(DataView view, Function<DataView, Entry<T>> loader) {
+        Entry<T> entry = this.cache.get(view, loader);
+        if (entry.value instanceof CroppableTile) {
+            this.index(view);
+        }
+        return entry;
+    }
+
+    private Entry<T> createEntry(DataView view) {
+        int failedLoads = TiledDataSource.getFailedLoads();
+        T value = this.create(view);
+        return new Entry<>(value, TiledDataSource.getFailedLoads() - failedLoads, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<T> crop(Entry<T> cached, DataView cachedView, DataView view) {
+        int offsetX = view.getX() - cachedView.getX();
+        int offsetZ = view.getY() - cachedView.getY();
+        T value = (T) ((CroppableTile<?>) cached.value).crop(offsetX, offsetZ, view.getWidth(), view.getHeight());
+        return new Entry<>(value, cached.failedLoads, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<T> stitch(Entry<T> cached, DataView cachedView, DataView view) {
+        DataView remainderView = getRemainder(cachedView, view);
+        Entry<T> remainder = this.createEntry(remainderView);
+
+        CroppableTile cachedTile = (CroppableTile) cached.value;
+        CroppableTile result = cachedTile.createEmpty(view.getWidth(), view.getHeight());
+
+        int minX = Math.max(cachedView.getX(), view.getX());
+        int minZ = Math.max(cachedView.getY(), view.getY());
+        int maxX = Math.min(cachedView.getMaxX(), view.getMaxX());
+        int maxZ = Math.min(cachedView.getMaxY(), view.getMaxY());
+        cachedTile.copyRegionInto(result, minX - cachedView.getX(), minZ - cachedView.getY(), minX - view.getX(), minZ - view.getY(), maxX - minX, maxZ - minZ);
+
+        int remainderX = remainderView.getX() - view.getX();
+        int remainderZ = remainderView.getY() - view.getY();
+        ((CroppableTile) remainder.value).copyRegionInto(result, 0, 0, remainderX, remainderZ, remainderView.getWidth(), remainderView.getHeight());
+
+        return new Entry<>((T) result, cached.failedLoads + remainder.failedLoads, true);
+    }
+
+    // The part of the view a cached view leaves uncovered, if it is a single strip along one edge
+    @Nullable
+    private static DataView getRemainder(DataView cachedView, DataView view) {
+        boolean coversX = cachedView.getX() <= view.getX() && cachedView.getMaxX() >= view.getMaxX();
+        boolean coversY = cachedView.getY() <= view.getY() && cachedView.getMaxY() >= view.getMaxY();
+        if (coversY && !coversX) {
+            if (cachedView.getX() <= view.getX() && cachedView.getMaxX() > view.getX()) {
+                return new DataView(cachedView.getMaxX(), view.getY(), view.getMaxX() - cachedView.getMaxX(), view.getHeight());
+            } else if (cachedView.getMaxX() >= view.getMaxX() && cachedView.getX() < view.getMaxX()) {
+                return new DataView(view.getX(), view.getY(), cachedView.getX() - view.getX(), view.getHeight());
+            }
+        } else if (coversX && !coversY) {
+            if (cachedView.getY() <= view.getY() && cachedView.getMaxY() > view.getY()) {
+                return new DataView(view.getX(), cachedView.getMaxY(), view.getWidth(), view.getMaxY() - cachedView.getMaxY());
+            } else if (cachedView.getMaxY() >= view.getMaxY() && cachedView.getY() < view.getMaxY()) {
+                return new DataView(view.getX(), view.getY(), view.getWidth(), cachedView.getY() - view.getY());
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private DataView findOverlappingView(DataView view) {
+        int minCellX = Math.floorDiv(view.getX() - this.maxIndexedWidth, INDEX_CELL_SIZE);
+        int minCellY = Math.floorDiv(view.getY() - this.maxIndexedHeight, INDEX_CELL_SIZE);
+        int maxCellX = Math.floorDiv(view.getMaxX() - 1, INDEX_CELL_SIZE);
+        int maxCellY = Math.floorDiv(view.getMaxY() - 1, INDEX_CELL_SIZE);
+
+        DataView bestView = null;
+        long bestRemainderArea = Long.MAX_VALUE;
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                Set<DataView> views = this.croppableIndex.get(cellKey(cellX, cellY));
+                if (views == null) {
+                    continue;
+                }
+                for (DataView cachedView : views) {
+                    if (!this.cache.contains(cachedView)) {
+                        if (views.remove(cachedView)) {
+                            this.indexedCount.decrementAndGet();
+                        }
+                    } else if (cachedView.contains(view)) {
+                        return cachedView;
+                    } else {
+                        DataView remainder = getRemainder(cachedView, view);
+                        if (remainder != null && (long) remainder.getWidth() * remainder.getHeight() < bestRemainderArea) {
+                            bestView = cachedView;
+                            bestRemainderArea = (long) remainder.getWidth() * remainder.getHeight();
+                        }
+                    }
+                }
+            }
+        }
+
+        return bestView;
+    }
+
+    private void index(DataView view) {
+        long key = cellKey(Math.floorDiv(view.getX(), INDEX_CELL_SIZE), Math.floorDiv(view.getY(), INDEX_CELL_SIZE));
+        if (this.croppableIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(view)) {
+            this.maxIndexedWidth = Math.max(this.maxIndexedWidth, view.getWidth());
+            this.maxIndexedHeight = Math.max(this.maxIndexedHeight, view.getHeight());
+            if (this.indexedCount.incrementAndGet() > this.cache.size() * 2 + 64) {
+                this.pruneIndex();
+            }
+        }
+    }
+
+    private void pruneIndex() {
+        for (Set<DataView> views : this.croppableIndex.values()) {
+            for (DataView view : views) {
+                if (!this.cache.contains(view) && views.remove(view)) {
+                    this.indexedCount.decrementAndGet();
+                }
+            }
+        }
+        this.croppableIndex.values().removeIf(Set::isEmpty);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return (long) cellX << 32 | (cellY & 0xFFFFFFFFL);
     }
 
     public abstract T create(DataView view);
+
+    private static class Entry<T> {
+        private final T value;
+        private final int failedLoads;
+        private final boolean shared;
+
+        private Entry(T value, int failedLoads, boolean shared) {
+            this.value = value;
+            this.failedLoads = failedLoads;
+            this.shared = shared;
+        }
+    }
 }
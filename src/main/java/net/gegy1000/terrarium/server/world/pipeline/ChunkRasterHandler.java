@@ -3,49 +3,59 @@ package net.gegy1000.terrarium.server.world.pipeline;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.RasterDataAccess;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.RasterTile;
 import net.gegy1000.terrarium.server.world.region.GenerationRegionHandler;
 
 import java.util.Map;
 
 public class ChunkRasterHandler {
     private final GenerationRegionHandler regionHandler;
-    private final ImmutableMap<RegionComponentType<?>, Data<?, ?>> chunkRasters;
+    private final ImmutableSet<RegionComponentType<?>> rasterComponentTypes;
+    private final ThreadLocal<ImmutableMap<RegionComponentType<?>, Data<?>>> chunkRasters;
 
     public ChunkRasterHandler(GenerationRegionHandler regionHandler, TerrariumDataProvider dataSystem) {
         this.regionHandler = regionHandler;
 
-        ImmutableMap.Builder<RegionComponentType<?>, Data<?, ?>> chunkRastersBuilder = ImmutableMap.builder();
+        ImmutableSet.Builder<RegionComponentType<?>> rasterComponentTypesBuilder = ImmutableSet.builder();
 
         ImmutableSet<RegionComponentType<?>> componentTypes = dataSystem.getAttachedComponentTypes();
         for (RegionComponentType<?> componentType : componentTypes) {
-            if (RasterDataAccess.class.isAssignableFrom(componentType.getType())) {
-                this.put(chunkRastersBuilder, componentType);
+            if (!componentType.isTransient() && RasterTile.class.isAssignableFrom(componentType.getType())) {
+                rasterComponentTypesBuilder.add(componentType);
             }
         }
 
-        this.chunkRasters = chunkRastersBuilder.build();
+        this.rasterComponentTypes = rasterComponentTypesBuilder.build();
+        this.chunkRasters = ThreadLocal.withInitial(this::createChunkRasters);
+    }
+
+    private ImmutableMap<RegionComponentType<?>, Data<?>> createChunkRasters() {
+        ImmutableMap.Builder<RegionComponentType<?>, Data<?>> chunkRastersBuilder = ImmutableMap.builder();
+        for (RegionComponentType<?> componentType : this.rasterComponentTypes) {
+            this.put(chunkRastersBuilder, componentType);
+        }
+        return chunkRastersBuilder.build();
     }
 
     @SuppressWarnings("unchecked")
-    private <V> void put(ImmutableMap.Builder<RegionComponentType<?>, Data<?, ?>> builder, RegionComponentType<?> componentType) {
-        builder.put(componentType, new Data<>((RegionComponentType<? extends RasterDataAccess<V>>) componentType));
+    private <T extends RasterTile<? super T>> void put(ImmutableMap.Builder<RegionComponentType<?>, Data<?>> builder, RegionComponentType<?> componentType) {
+        builder.put(componentType, new Data<>((RegionComponentType<T>) componentType));
     }
 
     public void fillRasters(int originX, int originZ) {
-        for (Map.Entry<RegionComponentType<?>, Data<?, ?>> entry : this.chunkRasters.entrySet()) {
-            Data<?, ?> data = entry.getValue();
+        for (Map.Entry<RegionComponentType<?>, Data<?>> entry : this.chunkRasters.get().entrySet()) {
+            Data<?> data = entry.getValue();
             data.fillRaster(originX, originZ);
         }
     }
 
     @SuppressWarnings("unchecked")
-    public <T extends RasterDataAccess<V>, V> T getChunkRaster(RegionComponentType<T> componentType) {
-        Data<T, V> data = (Data<T, V>) this.chunkRasters.get(componentType);
+    public <T extends RasterTile<? super T>> T getChunkRaster(RegionComponentType<T> componentType) {
+        Data<T> data = (Data<T>) this.chunkRasters.get().get(componentType);
         return data.getRaster();
     }
 
-    private class Data<T extends RasterDataAccess<V>, V> {
+    private class Data<T extends RasterTile<? super T>> {
         private final RegionComponentType<T> componentType;
         private final T raster;
 
@@ -2,6 +2,8 @@ package net.gegy1000.terrarium.server.world.pipeline;
 
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
+import java.util.concurrent.CompletableFuture;
+
 public class DataLayer<T extends TiledDataAccess, P extends TiledDataAccess> extends CachedDataProducer<T> {
     private final DataLayerProcessor<T, P> processor;
     private final DataLayerProducer<P> parent;
@@ -21,6 +23,11 @@ public class DataLayer<T extends TiledDataAccess, P extends TiledDataAccess> ext
         this.parent.reset();
     }
 
+    @Override
+    public CompletableFuture<?> prefetch(DataView view) {
+        return this.parent.prefetch(this.processor.getParentView(view));
+    }
+
     @Override
     public T create(DataView view) {
         DataView parentView = this.processor.getParentView(view);
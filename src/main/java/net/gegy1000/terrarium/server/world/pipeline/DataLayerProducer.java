@@ -2,9 +2,20 @@ package net.gegy1000.terrarium.server.world.pipeline;
 
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface DataLayerProducer<T extends TiledDataAccess> {
     default void reset() {
     }
 
+    default CompletableFuture<?> prefetch(DataView view) {
+        return CompletableFuture.completedFuture(null);
+    }
+
     T apply(DataView view);
+
+    // Results may be shared with a cache, so callers that modify them in place must request their own copy
+    default T applyMutable(DataView view) {
+        return this.apply(view);
+    }
 }
@@ -2,6 +2,8 @@ package net.gegy1000.terrarium.server.world.pipeline;
 
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
+import java.util.concurrent.CompletableFuture;
+
 public class DataSource<T extends TiledDataAccess> extends CachedDataProducer<T> {
     private final DataLayerProducer<T> producer;
 
@@ -19,6 +21,11 @@ public class DataSource<T extends TiledDataAccess> extends CachedDataProducer<T>
         this.producer.reset();
     }
 
+    @Override
+    public CompletableFuture<?> prefetch(DataView view) {
+        return this.producer.prefetch(view);
+    }
+
     @Override
     public T create(DataView view) {
         return this.producer.apply(view);
@@ -60,7 +60,7 @@ public class DataView {
     public boolean equals(Object obj) {
         if (obj instanceof DataView) {
             DataView dataView = (DataView) obj;
-            return this.x == dataView.x && this.y == dataView.y && this.width == dataView.height && this.height == dataView.height;
+            return this.x == dataView.x && this.y == dataView.y && this.width == dataView.width && this.height == dataView.height;
         }
         return false;
     }
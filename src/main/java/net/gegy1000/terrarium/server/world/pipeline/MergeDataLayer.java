@@ -3,6 +3,7 @@ package net.gegy1000.terrarium.server.world.pipeline;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.MergableTile;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 public class MergeDataLayer<T extends MergableTile<T>> implements DataLayerProducer<T> {
     private final DataLayerProducer<T>[] inputs;
@@ -26,8 +27,19 @@ public class MergeDataLayer<T extends MergableTile<T>> implements DataLayerProdu
         }
     }
 
+    @Override
+    public CompletableFuture<?> prefetch(DataView view) {
+        CompletableFuture<?>[] futures = new CompletableFuture[this.inputs.length];
+        for (int i = 0; i < this.inputs.length; i++) {
+            futures[i] = this.inputs[i].prefetch(view);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
     @Override
     public T apply(DataView view) {
+        this.prefetch(view).exceptionally(throwable -> null).join();
+
         T result = this.inputs[0].apply(view);
         for (int i = 1; i < this.inputs.length; i++) {
             result = result.merge(this.inputs[i].apply(view));
@@ -3,29 +3,47 @@ package net.gegy1000.terrarium.server.world.pipeline;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import net.gegy1000.terrarium.Terrarium;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.adapter.CellAdapter;
+import net.gegy1000.terrarium.server.world.pipeline.adapter.FusedCellAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
 import net.gegy1000.terrarium.server.world.pipeline.component.AttachedComponent;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponent;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
+import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 import net.gegy1000.terrarium.server.world.region.RegionTilePos;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TerrariumDataProvider {
+    private static final ForkJoinPool POPULATION_POOL = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("terrarium-population-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
     private final ImmutableMap<RegionComponentType<?>, AttachedComponent<?>> attachedComponents;
-    private final ImmutableList<RegionAdapter> adapters;
+    private final ImmutableList<ScheduledAdapter> adapters;
 
     private TerrariumDataProvider(
             ImmutableMap<RegionComponentType<?>, AttachedComponent<?>> attachedComponents,
-            ImmutableList<RegionAdapter> adapters
+            ImmutableList<ScheduledAdapter> adapters
     ) {
         this.attachedComponents = attachedComponents;
         this.adapters = adapters;
@@ -36,23 +54,67 @@ public class TerrariumDataProvider {
     }
 
     public RegionData populateData(GenerationSettings settings, RegionTilePos pos, Coordinate regionSize, int width, int height) {
-        Map<RegionComponentType<?>, RegionComponent<?>> populatedComponents = new HashMap<>();
+        AtomicInteger failedLoads = new AtomicInteger();
+
+        Map<RegionComponentType<?>, CompletableFuture<RegionComponent<?>>> futures = new HashMap<>();
         for (AttachedComponent<?> attachedComponent : this.attachedComponents.values()) {
-            RegionComponent<?> component = attachedComponent.createAndPopulate(pos, width, height);
-            populatedComponents.put(attachedComponent.getType(), component);
+            CompletableFuture<?>[] dependencies = attachedComponent.getDependencies().stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture<RegionComponent<?>> future = CompletableFuture.allOf(dependencies)
+                    .thenApplyAsync(v -> this.populateComponent(attachedComponent, pos, width, height, failedLoads), POPULATION_POOL);
+            futures.put(attachedComponent.getType(), future);
         }
+
+        Map<RegionComponentType<?>, RegionComponent<?>> populatedComponents = new HashMap<>();
+        try {
+            for (Map.Entry<RegionComponentType<?>, CompletableFuture<RegionComponent<?>>> entry : futures.entrySet()) {
+                populatedComponents.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to populate region components at " + pos, cause);
+        }
+
+        TiledDataSource.markFailedLoads(failedLoads.get());
+
         RegionData data = new RegionData(populatedComponents);
         this.applyAdapters(settings, data, pos, width, height);
-        return data;
+
+        populatedComponents.keySet().removeIf(RegionComponentType::isTransient);
+        return new RegionData(populatedComponents);
+    }
+
+    private RegionComponent<?> populateComponent(AttachedComponent<?> attachedComponent, RegionTilePos pos, int width, int height, AtomicInteger failedLoads) {
+        int previousFailedLoads = TiledDataSource.getFailedLoads();
+        RegionComponent<?> component = attachedComponent.createAndPopulate(pos, width, height);
+        failedLoads.addAndGet(TiledDataSource.getFailedLoads() - previousFailedLoads);
+        return component;
     }
 
     private void applyAdapters(GenerationSettings settings, RegionData data, RegionTilePos pos, int width, int height) {
-        for (RegionAdapter adapter : this.adapters) {
-            try {
-                adapter.adapt(settings, data, pos.getMinBufferedX(), pos.getMinBufferedZ(), width, height);
-            } catch (Exception e) {
-                Terrarium.LOGGER.warn("Failed to run adapter {}", adapter.getClass().getName(), e);
+        CompletableFuture<?>[] futures = new CompletableFuture[this.adapters.size()];
+        for (int i = 0; i < futures.length; i++) {
+            ScheduledAdapter scheduled = this.adapters.get(i);
+            CompletableFuture<?>[] dependencies = new CompletableFuture[scheduled.dependencies.length];
+            for (int dependency = 0; dependency < dependencies.length; dependency++) {
+                dependencies[dependency] = futures[scheduled.dependencies[dependency]];
             }
+            RegionAdapter adapter = scheduled.adapter;
+            futures[i] = CompletableFuture.allOf(dependencies)
+                    .thenRunAsync(() -> this.applyAdapter(adapter, settings, data, pos, width, height), POPULATION_POOL);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void applyAdapter(RegionAdapter adapter, GenerationSettings settings, RegionData data, RegionTilePos pos, int width, int height) {
+        try {
+            adapter.adapt(settings, data, pos.getMinBufferedX(), pos.getMinBufferedZ(), width, height);
+        } catch (Exception e) {
+            Terrarium.LOGGER.warn("Failed to run adapter {}", adapter.getClass().getSimpleName(), e);
         }
     }
 
@@ -67,8 +129,8 @@ public class TerrariumDataProvider {
         private Builder() {
         }
 
-        public <T extends TiledDataAccess> Builder withComponent(RegionComponentType<T> type, DataLayerProducer<T> producer) {
-            this.attachedComponents.put(type, new AttachedComponent<>(type, producer));
+        public <T extends TiledDataAccess> Builder withComponent(RegionComponentType<T> type, DataLayerProducer<T> producer, RegionComponentType<?>... dependencies) {
+            this.attachedComponents.put(type, new AttachedComponent<>(type, producer, ImmutableSet.copyOf(dependencies)));
             return this;
         }
 
@@ -78,7 +140,77 @@ public class TerrariumDataProvider {
         }
 
         public TerrariumDataProvider build() {
-            return new TerrariumDataProvider(ImmutableMap.copyOf(this.attachedComponents), ImmutableList.copyOf(this.adapters));
+            Map<RegionComponentType<?>, AttachedComponent<?>> sortedComponents = new LinkedHashMap<>();
+            Set<RegionComponentType<?>> visiting = Sets.newHashSet();
+            for (AttachedComponent<?> component : this.attachedComponents.values()) {
+                this.visitComponent(component, sortedComponents, visiting);
+            }
+            return new TerrariumDataProvider(ImmutableMap.copyOf(sortedComponents), this.scheduleAdapters());
+        }
+
+        private ImmutableList<ScheduledAdapter> scheduleAdapters() {
+            List<RegionAdapter> fusedAdapters = new ArrayList<>();
+            List<CellAdapter> cellAdapters = new ArrayList<>();
+            for (RegionAdapter adapter : this.adapters) {
+                if (adapter instanceof CellAdapter) {
+                    cellAdapters.add((CellAdapter) adapter);
+                } else {
+                    this.fuseCellAdapters(cellAdapters, fusedAdapters);
+                    fusedAdapters.add(adapter);
+                }
+            }
+            this.fuseCellAdapters(cellAdapters, fusedAdapters);
+
+            ImmutableList.Builder<ScheduledAdapter> scheduledAdapters = ImmutableList.builder();
+            for (int i = 0; i < fusedAdapters.size(); i++) {
+                RegionAdapter adapter = fusedAdapters.get(i);
+                List<Integer> dependencies = new ArrayList<>();
+                for (int previous = 0; previous < i; previous++) {
+                    if (fusedAdapters.get(previous).conflictsWith(adapter)) {
+                        dependencies.add(previous);
+                    }
+                }
+                scheduledAdapters.add(new ScheduledAdapter(adapter, dependencies.stream().mapToInt(Integer::intValue).toArray()));
+            }
+            return scheduledAdapters.build();
+        }
+
+        private void fuseCellAdapters(List<CellAdapter> cellAdapters, List<RegionAdapter> fusedAdapters) {
+            if (cellAdapters.size() == 1) {
+                fusedAdapters.add(cellAdapters.get(0));
+            } else if (cellAdapters.size() > 1) {
+                fusedAdapters.add(new FusedCellAdapter(ImmutableList.copyOf(cellAdapters)));
+            }
+            cellAdapters.clear();
+        }
+
+        private void visitComponent(AttachedComponent<?> component, Map<RegionComponentType<?>, AttachedComponent<?>> sortedComponents, Set<RegionComponentType<?>> visiting) {
+            RegionComponentType<?> type = component.getType();
+            if (sortedComponents.containsKey(type)) {
+                return;
+            }
+            if (!visiting.add(type)) {
+                throw new IllegalStateException("Component " + type.getIdentifier() + " has a circular dependency!");
+            }
+            for (RegionComponentType<?> dependency : component.getDependencies()) {
+                AttachedComponent<?> dependencyComponent = this.attachedComponents.get(dependency);
+                if (dependencyComponent == null) {
+                    throw new IllegalStateException("Component " + type.getIdentifier() + " depends on missing component " + dependency.getIdentifier());
+                }
+                this.visitComponent(dependencyComponent, sortedComponents, visiting);
+            }
+            visiting.remove(type);
+            sortedComponents.put(type, component);
+        }
+    }
+
+    private static class ScheduledAdapter {
+        private final RegionAdapter adapter;
+        private final int[] dependencies;
+
+        private ScheduledAdapter(RegionAdapter adapter, int[] dependencies) {
+            this.adapter = adapter;
+            this.dependencies = dependencies;
         }
     }
 }
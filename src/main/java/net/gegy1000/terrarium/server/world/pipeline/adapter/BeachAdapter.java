@@ -1,31 +1,35 @@
 package net.gegy1000.terrarium.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.GenerationRegion;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.NoiseGeneratorImproved;
 
+import java.util.Arrays;
 import java.util.Random;
 
 public class BeachAdapter implements RegionAdapter {
     private final RegionComponentType<CoverRasterTile> coverComponent;
+    private final RegionComponentType<ShortRasterTile> waterDistanceComponent;
     private final int beachSize;
 
-    private final CoverType waterCover;
-    private final CoverType beachCover;
+    private final byte beachCover;
 
     private final NoiseGeneratorImproved beachNoise;
-    private final double[] sampledBeachNoise = new double[GenerationRegion.BUFFERED_SIZE * GenerationRegion.BUFFERED_SIZE];
+    private final ThreadLocal<double[]> sampledBeachNoise = ThreadLocal.withInitial(() -> new double[GenerationRegion.BUFFERED_SIZE * GenerationRegion.BUFFERED_SIZE]);
 
-    public BeachAdapter(World world, RegionComponentType<CoverRasterTile> coverComponent, int beachSize, CoverType waterCover, CoverType beachCover) {
+    public BeachAdapter(World world, RegionComponentType<CoverRasterTile> coverComponent, RegionComponentType<ShortRasterTile> waterDistanceComponent, int beachSize, CoverType beachCover) {
         this.coverComponent = coverComponent;
+        this.waterDistanceComponent = waterDistanceComponent;
         this.beachSize = beachSize;
-        this.waterCover = waterCover;
-        this.beachCover = beachCover;
+        this.beachCover = (byte) CoverTypeRegistry.getId(beachCover);
 
         Random random = new Random(world.getWorldInfo().getSeed());
         this.beachNoise = new NoiseGeneratorImproved(random);
@@ -38,42 +42,39 @@ public class BeachAdapter implements RegionAdapter {
             return;
         }
 
+        double[] sampledBeachNoise = this.sampledBeachNoise.get();
+        Arrays.fill(sampledBeachNoise, 0.0);
+
         double frequency = 0.2;
-        this.beachNoise.populateNoiseArray(this.sampledBeachNoise, x * frequency, 0.0, z * frequency, width, 1, height, frequency, 1.0, frequency, 1.0);
+        this.beachNoise.populateNoiseArray(sampledBeachNoise, x * frequency, 0.0, z * frequency, width, 1, height, frequency, 1.0, frequency, 1.0);
+
+        byte[] coverBuffer = coverTile.getCoverIds();
+        short[] waterDistanceBuffer = data.getOrExcept(this.waterDistanceComponent).getShortData();
 
-        CoverType[] coverBuffer = coverTile.getData();
+        int spread = this.beachSize - 1;
+        double maxWeight = (spread * spread) * 2;
 
         for (int localY = 0; localY < height; localY++) {
-            CoverType last = coverBuffer[localY * width];
-            for (int localX = 1; localX < width; localX++) {
-                CoverType cover = coverBuffer[localX + localY * width];
-                if (last != cover && cover == this.waterCover || last == this.waterCover) {
-                    this.spreadBeach(this.beachSize - 1, width, height, localX, localY, coverBuffer);
+            for (int localX = 0; localX < width; localX++) {
+                int index = localX + localY * width;
+                int waterDistance = waterDistanceBuffer[index];
+                if (waterDistance > 0 && waterDistance < maxWeight) {
+                    double noise = sampledBeachNoise[localY + localX * GenerationRegion.BUFFERED_SIZE];
+                    if (maxWeight - waterDistance > noise * noise * 3.0) {
+                        coverBuffer[index] = this.beachCover;
+                    }
                 }
-                last = cover;
             }
         }
     }
 
-    private void spreadBeach(int beachSize, int width, int height, int localX, int localY, CoverType[] coverBuffer) {
-        double maxWeight = (beachSize * beachSize) * 2;
-        for (int beachY = -beachSize; beachY <= beachSize; beachY++) {
-            int globalY = localY + beachY;
-            if (globalY >= 0 && globalY < height) {
-                for (int beachX = -beachSize; beachX <= beachSize; beachX++) {
-                    int globalX = localX + beachX;
-                    if (globalX >= 0 && globalX < width) {
-                        int beachIndex = globalX + globalY * width;
-                        if (coverBuffer[beachIndex] != this.waterCover) {
-                            double weight = maxWeight - (beachX * beachX + beachY * beachY);
-                            double noise = this.sampledBeachNoise[globalY + globalX * GenerationRegion.BUFFERED_SIZE];
-                            if (weight > noise * noise * 3.0) {
-                                coverBuffer[beachIndex] = this.beachCover;
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.coverComponent, this.waterDistanceComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.coverComponent);
     }
 }
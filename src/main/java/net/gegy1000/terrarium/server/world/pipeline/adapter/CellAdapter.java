@@ -0,0 +1,17 @@
+package net.gegy1000.terrarium.server.world.pipeline.adapter;
+
+import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.region.RegionData;
+
+public interface CellAdapter extends RegionAdapter {
+    Operation prepare(GenerationSettings settings, RegionData data, int x, int z, int width, int height);
+
+    @Override
+    default void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+        this.prepare(settings, data, x, z, width, height).apply(0, width * height);
+    }
+
+    interface Operation {
+        void apply(int fromIndex, int toIndex);
+    }
+}
@@ -0,0 +1,62 @@
+package net.gegy1000.terrarium.server.world.pipeline.adapter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
+import net.gegy1000.terrarium.server.world.region.RegionData;
+
+import java.util.stream.Collectors;
+
+public class FusedCellAdapter implements CellAdapter {
+    private static final int SPAN_SIZE = 4096;
+
+    private final ImmutableList<CellAdapter> adapters;
+    private final ImmutableSet<RegionComponentType<?>> readComponents;
+    private final ImmutableSet<RegionComponentType<?>> writeComponents;
+
+    public FusedCellAdapter(ImmutableList<CellAdapter> adapters) {
+        this.adapters = adapters;
+
+        ImmutableSet.Builder<RegionComponentType<?>> readComponents = ImmutableSet.builder();
+        ImmutableSet.Builder<RegionComponentType<?>> writeComponents = ImmutableSet.builder();
+        for (CellAdapter adapter : adapters) {
+            readComponents.addAll(adapter.getReadComponents());
+            writeComponents.addAll(adapter.getWriteComponents());
+        }
+        this.readComponents = readComponents.build();
+        this.writeComponents = writeComponents.build();
+    }
+
+    @Override
+    public Operation prepare(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+        Operation[] operations = new Operation[this.adapters.size()];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = this.adapters.get(i).prepare(settings, data, x, z, width, height);
+        }
+
+        return (fromIndex, toIndex) -> {
+            for (int spanStart = fromIndex; spanStart < toIndex; spanStart += SPAN_SIZE) {
+                int spanEnd = Math.min(spanStart + SPAN_SIZE, toIndex);
+                for (Operation operation : operations) {
+                    operation.apply(spanStart, spanEnd);
+                }
+            }
+        };
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return this.readComponents;
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return this.writeComponents;
+    }
+
+    @Override
+    public String toString() {
+        return this.adapters.stream().map(adapter -> adapter.getClass().getSimpleName()).collect(Collectors.joining(", ", "FusedCellAdapter[", "]"));
+    }
+}
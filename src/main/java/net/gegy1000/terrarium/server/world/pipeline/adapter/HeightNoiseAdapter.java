@@ -1,5 +1,6 @@
 package net.gegy1000.terrarium.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
@@ -9,7 +10,7 @@ import net.minecraft.world.gen.NoiseGeneratorOctaves;
 
 import java.util.Random;
 
-public class HeightNoiseAdapter implements RegionAdapter {
+public class HeightNoiseAdapter implements CellAdapter {
     private final RegionComponentType<ShortRasterTile> heightComponent;
 
     private final NoiseGeneratorOctaves heightNoise;
@@ -34,7 +35,7 @@ public class HeightNoiseAdapter implements RegionAdapter {
     }
 
     @Override
-    public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+    public Operation prepare(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
         ShortRasterTile heightTile = data.getOrExcept(this.heightComponent);
 
         short[] heightBuffer = heightTile.getShortData();
@@ -42,10 +43,22 @@ public class HeightNoiseAdapter implements RegionAdapter {
         double[] noise = new double[width * height];
         this.heightNoise.generateNoiseOctaves(noise, z, x, width, height, this.noiseScaleXZ, this.noiseScaleXZ, 0.0);
 
-        for (int i = 0; i < noise.length; i++) {
-            if (heightBuffer[i] > 0) {
-                heightBuffer[i] += (noise[i] + this.noiseMax) / (this.noiseMax * 2.0) * this.noiseScaleY * 35.0;
+        return (fromIndex, toIndex) -> {
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (heightBuffer[i] > 0) {
+                    heightBuffer[i] += (noise[i] + this.noiseMax) / (this.noiseMax * 2.0) * this.noiseScaleY * 35.0;
+                }
             }
-        }
+        };
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.heightComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.heightComponent);
     }
 }
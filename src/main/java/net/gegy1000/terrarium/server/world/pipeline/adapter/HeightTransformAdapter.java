@@ -1,12 +1,13 @@
 package net.gegy1000.terrarium.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 import net.minecraft.util.math.MathHelper;
 
-public class HeightTransformAdapter implements RegionAdapter {
+public class HeightTransformAdapter implements CellAdapter {
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final double heightScale;
     private final int heightOffset;
@@ -18,16 +19,25 @@ public class HeightTransformAdapter implements RegionAdapter {
     }
 
     @Override
-    public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+    public Operation prepare(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
         ShortRasterTile heightTile = data.getOrExcept(this.heightComponent);
         short[] heightBuffer = heightTile.getShortData();
 
-        for (int localZ = 0; localZ < height; localZ++) {
-            for (int localX = 0; localX < width; localX++) {
-                int index = localX + localZ * width;
+        return (fromIndex, toIndex) -> {
+            for (int index = fromIndex; index < toIndex; index++) {
                 int scaledHeight = MathHelper.ceil(heightBuffer[index] * this.heightScale);
                 heightBuffer[index] = (short) MathHelper.clamp(scaledHeight + this.heightOffset, 1, 255);
             }
-        }
+        };
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.heightComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.heightComponent);
     }
 }
@@ -1,8 +1,29 @@
 package net.gegy1000.terrarium.server.world.pipeline.adapter;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.region.RegionData;
 
 public interface RegionAdapter {
     void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height);
+
+    ImmutableSet<RegionComponentType<?>> getReadComponents();
+
+    ImmutableSet<RegionComponentType<?>> getWriteComponents();
+
+    default boolean conflictsWith(RegionAdapter adapter) {
+        ImmutableSet<RegionComponentType<?>> writes = this.getWriteComponents();
+        for (RegionComponentType<?> component : adapter.getWriteComponents()) {
+            if (writes.contains(component) || this.getReadComponents().contains(component)) {
+                return true;
+            }
+        }
+        for (RegionComponentType<?> component : adapter.getReadComponents()) {
+            if (writes.contains(component)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,55 @@
+package net.gegy1000.terrarium.server.world.pipeline.adapter;
+
+import com.google.common.collect.ImmutableSet;
+import net.gegy1000.terrarium.server.util.DistanceTransform;
+import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
+import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
+import net.gegy1000.terrarium.server.world.region.RegionData;
+
+public class WaterDistanceAdapter implements RegionAdapter {
+    private final RegionComponentType<CoverRasterTile> coverComponent;
+    private final RegionComponentType<ShortRasterTile> distanceComponent;
+
+    private final byte waterCover;
+
+    public WaterDistanceAdapter(RegionComponentType<CoverRasterTile> coverComponent, RegionComponentType<ShortRasterTile> distanceComponent, CoverType waterCover) {
+        this.coverComponent = coverComponent;
+        this.distanceComponent = distanceComponent;
+        this.waterCover = (byte) CoverTypeRegistry.getId(waterCover);
+    }
+
+    @Override
+    public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
+        byte[] coverBuffer = data.getOrExcept(this.coverComponent).getCoverIds();
+        short[] distanceBuffer = data.getOrExcept(this.distanceComponent).getShortData();
+
+        DistanceTransform transform = new DistanceTransform(width, height);
+
+        int[] waterDistance = new int[width * height];
+        int[] landDistance = new int[width * height];
+        transform.computeSquared(coverBuffer, this.waterCover, false, waterDistance);
+        transform.computeSquared(coverBuffer, this.waterCover, true, landDistance);
+
+        for (int index = 0; index < distanceBuffer.length; index++) {
+            if (coverBuffer[index] == this.waterCover) {
+                distanceBuffer[index] = (short) -Math.min(landDistance[index], Short.MAX_VALUE);
+            } else {
+                distanceBuffer[index] = (short) Math.min(waterDistance[index], Short.MAX_VALUE);
+            }
+        }
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of(this.coverComponent);
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.distanceComponent);
+    }
+}
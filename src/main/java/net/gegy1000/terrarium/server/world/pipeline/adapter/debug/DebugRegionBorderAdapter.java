@@ -1,6 +1,7 @@
 package net.gegy1000.terrarium.server.world.pipeline.adapter.debug;
 
-import net.gegy1000.terrarium.server.world.cover.CoverType;
+import com.google.common.collect.ImmutableSet;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.adapter.RegionAdapter;
@@ -20,7 +21,8 @@ public class DebugRegionBorderAdapter implements RegionAdapter {
     public void adapt(GenerationSettings settings, RegionData data, int x, int z, int width, int height) {
         CoverRasterTile coverTile = data.getOrExcept(this.coverComponent);
 
-        CoverType[] cover = coverTile.getData();
+        byte[] cover = coverTile.getCoverIds();
+        byte debugCover = (byte) CoverTypeRegistry.getId(TerrariumCoverTypes.DEBUG);
 
         int minX = GenerationRegion.BUFFER;
         int minZ = GenerationRegion.BUFFER;
@@ -29,9 +31,19 @@ public class DebugRegionBorderAdapter implements RegionAdapter {
         for (int localZ = minZ; localZ < maxZ; localZ++) {
             for (int localX = minX; localX < maxX; localX++) {
                 if (localX == minX || localX == maxX - 1 || localZ == minZ || localZ == maxZ - 1) {
-                    cover[localX + localZ * width] = TerrariumCoverTypes.DEBUG;
+                    cover[localX + localZ * width] = debugCover;
                 }
             }
         }
     }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getReadComponents() {
+        return ImmutableSet.of();
+    }
+
+    @Override
+    public ImmutableSet<RegionComponentType<?>> getWriteComponents() {
+        return ImmutableSet.of(this.coverComponent);
+    }
 }
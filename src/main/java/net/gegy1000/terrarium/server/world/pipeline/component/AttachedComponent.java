@@ -1,5 +1,6 @@
 package net.gegy1000.terrarium.server.world.pipeline.component;
 
+import com.google.common.collect.ImmutableSet;
 import net.gegy1000.terrarium.server.world.pipeline.DataLayerProducer;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
@@ -8,19 +9,28 @@ import net.gegy1000.terrarium.server.world.region.RegionTilePos;
 public final class AttachedComponent<T extends TiledDataAccess> {
     private final RegionComponentType<T> type;
     private final DataLayerProducer<T> producer;
+    private final ImmutableSet<RegionComponentType<?>> dependencies;
 
-    public AttachedComponent(RegionComponentType<T> type, DataLayerProducer<T> producer) {
+    public AttachedComponent(RegionComponentType<T> type, DataLayerProducer<T> producer, ImmutableSet<RegionComponentType<?>> dependencies) {
         this.type = type;
         this.producer = producer;
+        this.dependencies = dependencies;
+    }
+
+    public AttachedComponent(RegionComponentType<T> type, DataLayerProducer<T> producer) {
+        this(type, producer, ImmutableSet.of());
     }
 
     public RegionComponentType<T> getType() {
         return this.type;
     }
 
+    public ImmutableSet<RegionComponentType<?>> getDependencies() {
+        return this.dependencies;
+    }
+
     public RegionComponent<T> createAndPopulate(RegionTilePos pos, int width, int height) {
-        this.producer.reset();
         DataView view = new DataView(pos.getMinBufferedX(), pos.getMinBufferedZ(), width, height);
-        return new RegionComponent<>(this.type, this.producer.apply(view));
+        return new RegionComponent<>(this.type, this.producer.applyMutable(view));
     }
 }
@@ -1,8 +1,9 @@
 package net.gegy1000.terrarium.server.world.pipeline.component;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.gegy1000.terrarium.Terrarium;
-import net.gegy1000.terrarium.server.util.ArrayUtils;
-import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ByteRasterTile;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
@@ -10,28 +11,121 @@ import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 import net.minecraft.util.ResourceLocation;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
 public abstract class RegionComponentType<T extends TiledDataAccess> {
-    public static final RegionComponentType<ShortRasterTile> HEIGHT = new RegionComponentType<ShortRasterTile>(new ResourceLocation(Terrarium.MODID, "height"), ShortRasterTile.class) {
+    public static final SerializableComponentType<ShortRasterTile> HEIGHT = new SerializableComponentType<ShortRasterTile>(new ResourceLocation(Terrarium.MODID, "height"), ShortRasterTile.class) {
         @Override
         public ShortRasterTile createDefaultData(int width, int height) {
             short[] data = new short[width * height];
             return new ShortRasterTile(data, width, height);
         }
+
+        @Override
+        public void write(ShortRasterTile data, DataOutput output) throws IOException {
+            SerializableComponentType.writeShorts(output, data.getShortData());
+        }
+
+        @Override
+        public ShortRasterTile read(DataInput input, int width, int height) throws IOException {
+            return new ShortRasterTile(SerializableComponentType.readShorts(input, width * height), width, height);
+        }
     };
 
-    public static final RegionComponentType<ByteRasterTile> SLOPE = new RegionComponentType<ByteRasterTile>(new ResourceLocation(Terrarium.MODID, "slope"), ByteRasterTile.class) {
+    public static final SerializableComponentType<ByteRasterTile> SLOPE = new SerializableComponentType<ByteRasterTile>(new ResourceLocation(Terrarium.MODID, "slope"), ByteRasterTile.class) {
         @Override
         public ByteRasterTile createDefaultData(int width, int height) {
             byte[] data = new byte[width * height];
             return new ByteRasterTile(data, width, height);
         }
+
+        @Override
+        public void write(ByteRasterTile data, DataOutput output) throws IOException {
+            output.write(data.getByteData());
+        }
+
+        @Override
+        public ByteRasterTile read(DataInput input, int width, int height) throws IOException {
+            byte[] data = new byte[width * height];
+            input.readFully(data);
+            return new ByteRasterTile(data, width, height);
+        }
     };
 
-    public static final RegionComponentType<CoverRasterTile> COVER = new RegionComponentType<CoverRasterTile>(new ResourceLocation(Terrarium.MODID, "cover"), CoverRasterTile.class) {
+    public static final SerializableComponentType<CoverRasterTile> COVER = new SerializableComponentType<CoverRasterTile>(new ResourceLocation(Terrarium.MODID, "cover"), CoverRasterTile.class) {
         @Override
         public CoverRasterTile createDefaultData(int width, int height) {
-            CoverType[] data = ArrayUtils.defaulted(new CoverType[width * height], TerrariumCoverTypes.PLACEHOLDER);
-            return new CoverRasterTile(data, width, height);
+            return new CoverRasterTile(width, height);
+        }
+
+        @Override
+        public void write(CoverRasterTile data, DataOutput output) throws IOException {
+            byte[] cover = data.getCoverIds();
+
+            IntList palette = new IntArrayList();
+            int[] paletteIndices = new int[CoverTypeRegistry.MAX_TYPES];
+            Arrays.fill(paletteIndices, -1);
+
+            byte[] indices = new byte[cover.length];
+            for (int i = 0; i < cover.length; i++) {
+                int id = cover[i] & 0xFF;
+                int index = paletteIndices[id];
+                if (index == -1) {
+                    index = palette.size();
+                    palette.add(id);
+                    paletteIndices[id] = index;
+                }
+                indices[i] = (byte) index;
+            }
+
+            output.writeShort(palette.size());
+            for (int i = 0; i < palette.size(); i++) {
+                CoverType coverType = CoverTypeRegistry.byId(palette.getInt(i));
+                ResourceLocation identifier = CoverTypeRegistry.getIdentifier(coverType);
+                if (identifier == null) {
+                    throw new IOException("Cannot serialize unregistered cover type " + coverType);
+                }
+                output.writeUTF(identifier.toString());
+            }
+            output.write(indices);
+        }
+
+        @Override
+        public CoverRasterTile read(DataInput input, int width, int height) throws IOException {
+            byte[] palette = new byte[input.readUnsignedShort()];
+            for (int i = 0; i < palette.length; i++) {
+                ResourceLocation identifier = new ResourceLocation(input.readUTF());
+                CoverType coverType = CoverTypeRegistry.get(identifier);
+                if (coverType == null) {
+                    throw new IOException("Unknown cover type " + identifier);
+                }
+                palette[i] = (byte) CoverTypeRegistry.getId(coverType);
+            }
+
+            byte[] cover = new byte[width * height];
+            input.readFully(cover);
+            for (int i = 0; i < cover.length; i++) {
+                cover[i] = palette[cover[i] & 0xFF];
+            }
+            return new CoverRasterTile(cover, width, height);
+        }
+    };
+
+    // Squared distance to the nearest water cell on land, negated squared distance to the nearest land cell in water
+    public static final RegionComponentType<ShortRasterTile> WATER_DISTANCE = new RegionComponentType<ShortRasterTile>(new ResourceLocation(Terrarium.MODID, "water_distance"), ShortRasterTile.class) {
+        @Override
+        public ShortRasterTile createDefaultData(int width, int height) {
+            short[] data = new short[width * height];
+            Arrays.fill(data, Short.MAX_VALUE);
+            return new ShortRasterTile(data, width, height);
+        }
+
+        @Override
+        public boolean isTransient() {
+            return true;
         }
     };
 
@@ -45,6 +139,11 @@ public abstract class RegionComponentType<T extends TiledDataAccess> {
 
     public abstract T createDefaultData(int width, int height);
 
+    // Transient components are only available to adapters and are dropped from the region once they have run
+    public boolean isTransient() {
+        return false;
+    }
+
     public final Class<T> getType() {
         return this.type;
     }
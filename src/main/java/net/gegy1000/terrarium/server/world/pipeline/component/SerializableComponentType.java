@@ -0,0 +1,32 @@
+package net.gegy1000.terrarium.server.world.pipeline.component;
+
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
+import net.minecraft.util.ResourceLocation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public abstract class SerializableComponentType<T extends TiledDataAccess> extends RegionComponentType<T> {
+    public SerializableComponentType(ResourceLocation identifier, Class<T> type) {
+        super(identifier, type);
+    }
+
+    public abstract void write(T data, DataOutput output) throws IOException;
+
+    public abstract T read(DataInput input, int width, int height) throws IOException;
+
+    protected static void writeShorts(DataOutput output, short[] data) throws IOException {
+        for (short value : data) {
+            output.writeShort(value);
+        }
+    }
+
+    protected static short[] readShorts(DataInput input, int length) throws IOException {
+        short[] data = new short[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = input.readShort();
+        }
+        return data;
+    }
+}
@@ -3,6 +3,7 @@ package net.gegy1000.terrarium.server.world.pipeline.composer.biome;
 import net.gegy1000.terrarium.Terrarium;
 import net.gegy1000.terrarium.server.world.cover.ConstructedCover;
 import net.gegy1000.terrarium.server.world.cover.CoverGenerationContext;
+import net.gegy1000.terrarium.server.world.cover.CoverGenerator;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
@@ -18,7 +19,7 @@ public class CoverBiomeComposer implements BiomeComposer {
     private final RegionComponentType<CoverRasterTile> coverComponent;
     private final Map<CoverType<?>, CoverGenerationContext> context;
 
-    private final Biome[] biomeBuffer = new Biome[16 * 16];
+    private final ThreadLocal<Biome[]> biomeBuffer = ThreadLocal.withInitial(() -> new Biome[16 * 16]);
 
     public CoverBiomeComposer(
             RegionComponentType<CoverRasterTile> coverComponent,
@@ -33,15 +34,19 @@ public class CoverBiomeComposer implements BiomeComposer {
         int globalX = chunkX << 4;
         int globalZ = chunkZ << 4;
 
+        Biome[] biomeBuffer = this.biomeBuffer.get();
+
         CoverRasterTile coverRaster = regionHandler.getCachedChunkRaster(this.coverComponent);
-        for (int localZ = 0; localZ < 16; localZ++) {
-            for (int localX = 0; localX < 16; localX++) {
-                CoverType<?> coverType = coverRaster.get(localX, localZ);
-                this.biomeBuffer[localX + localZ * 16] = this.getBiome(coverType, globalX + localX, globalZ + localZ);
+        synchronized (CoverGenerator.GENERATION_LOCK) {
+            for (int localZ = 0; localZ < 16; localZ++) {
+                for (int localX = 0; localX < 16; localX++) {
+                    CoverType<?> coverType = coverRaster.get(localX, localZ);
+                    biomeBuffer[localX + localZ * 16] = this.getBiome(coverType, globalX + localX, globalZ + localZ);
+                }
             }
         }
 
-        return this.biomeBuffer;
+        return biomeBuffer;
     }
 
     @SuppressWarnings("unchecked")
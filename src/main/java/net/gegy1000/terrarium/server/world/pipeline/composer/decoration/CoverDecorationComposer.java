@@ -5,38 +5,40 @@ import net.gegy1000.terrarium.server.world.chunk.PseudoRandomMap;
 import net.gegy1000.terrarium.server.world.cover.ConstructedCover;
 import net.gegy1000.terrarium.server.world.cover.CoverDecorationGenerator;
 import net.gegy1000.terrarium.server.world.cover.CoverGenerationContext;
+import net.gegy1000.terrarium.server.world.cover.CoverGenerator;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
 import net.gegy1000.terrarium.server.world.region.GenerationRegionHandler;
 import net.minecraft.world.World;
 
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 public class CoverDecorationComposer implements DecorationComposer {
     private static final long DECORATION_SEED = 2492037454623254033L;
 
-    private final Random random;
-    private final PseudoRandomMap coverMap;
+    private final ThreadLocal<Random> random = ThreadLocal.withInitial(Random::new);
+    private final ThreadLocal<PseudoRandomMap> coverMap;
 
     private final RegionComponentType<CoverRasterTile> coverComponent;
 
     private final List<CoverGenerationContext> context;
     private final Map<CoverType<?>, CoverDecorationGenerator<?>> generators;
-    private final Set<CoverType<?>> coverTypes = new HashSet<>();
+    private final ThreadLocal<BitSet> coverIds = ThreadLocal.withInitial(() -> new BitSet(CoverTypeRegistry.MAX_TYPES));
 
     public CoverDecorationComposer(
             World world,
             RegionComponentType<CoverRasterTile> coverComponent,
             List<ConstructedCover<?>> coverTypes
     ) {
-        this.random = new Random(world.getWorldInfo().getSeed() ^ DECORATION_SEED);
-        this.coverMap = new PseudoRandomMap(world.getWorldInfo().getSeed(), this.random.nextLong());
+        long worldSeed = world.getWorldInfo().getSeed();
+        long coverMapSeed = new Random(worldSeed ^ DECORATION_SEED).nextLong();
+        this.coverMap = ThreadLocal.withInitial(() -> new PseudoRandomMap(worldSeed, coverMapSeed));
 
         this.coverComponent = coverComponent;
 
@@ -51,27 +53,34 @@ public class CoverDecorationComposer implements DecorationComposer {
 
         CoverRasterTile coverRaster = regionHandler.getCachedChunkRaster(this.coverComponent);
 
-        this.coverTypes.clear();
+        BitSet coverIds = this.coverIds.get();
+        coverIds.clear();
         for (int localZ = 0; localZ < 16; localZ++) {
             for (int localX = 0; localX < 16; localX++) {
-                this.coverTypes.add(coverRaster.get(localX, localZ));
+                coverIds.set(coverRaster.getCoverId(localX, localZ));
             }
         }
 
-        this.coverMap.initPosSeed(globalX, globalZ);
-        long randomSeed = this.coverMap.next();
+        PseudoRandomMap coverMap = this.coverMap.get();
+        coverMap.initPosSeed(globalX, globalZ);
+        long randomSeed = coverMap.next();
 
-        for (CoverGenerationContext context : this.context) {
-            context.prepareChunk(regionHandler);
-        }
+        Random random = this.random.get();
+
+        synchronized (CoverGenerator.GENERATION_LOCK) {
+            for (CoverGenerationContext context : this.context) {
+                context.prepareChunk(regionHandler);
+            }
 
-        for (CoverType<?> type : this.coverTypes) {
-            CoverDecorationGenerator<?> generator = this.generators.get(type);
-            if (generator != null) {
-                this.random.setSeed(randomSeed);
-                generator.decorate(globalX + 8, globalZ + 8, this.random);
-            } else {
-                Terrarium.LOGGER.warn("Tried to generate with non-registered cover: {}", type);
+            for (int id = coverIds.nextSetBit(0); id >= 0; id = coverIds.nextSetBit(id + 1)) {
+                CoverType<?> type = CoverTypeRegistry.byId(id);
+                CoverDecorationGenerator<?> generator = this.generators.get(type);
+                if (generator != null) {
+                    random.setSeed(randomSeed);
+                    generator.decorate(globalX + 8, globalZ + 8, random);
+                } else {
+                    Terrarium.LOGGER.warn("Tried to generate with non-registered cover: {}", type);
+                }
             }
         }
     }
@@ -5,8 +5,10 @@ import net.gegy1000.terrarium.server.util.ArrayUtils;
 import net.gegy1000.terrarium.server.world.chunk.PseudoRandomMap;
 import net.gegy1000.terrarium.server.world.cover.ConstructedCover;
 import net.gegy1000.terrarium.server.world.cover.CoverGenerationContext;
+import net.gegy1000.terrarium.server.world.cover.CoverGenerator;
 import net.gegy1000.terrarium.server.world.cover.CoverSurfaceGenerator;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.cover.generator.primer.CoverChunkPrimer;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
@@ -17,11 +19,10 @@ import net.minecraft.world.World;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.gen.NoiseGeneratorPerlin;
 
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 public class CoverSurfaceComposer implements SurfaceComposer {
@@ -30,22 +31,16 @@ public class CoverSurfaceComposer implements SurfaceComposer {
     private static final IBlockState AIR = Blocks.AIR.getDefaultState();
 
     private final NoiseGeneratorPerlin depthNoise;
-    private double[] depthBuffer = new double[16 * 16];
-
-    private final Random random;
-    private final PseudoRandomMap coverMap;
 
     private final RegionComponentType<CoverRasterTile> coverComponent;
 
     private final boolean decorate;
     private final IBlockState replaceBlock;
 
-    private final IBlockState[] coverBlockBuffer = ArrayUtils.defaulted(new IBlockState[16 * 16], AIR);
-    private final IBlockState[] fillerBlockBuffer = ArrayUtils.defaulted(new IBlockState[16 * 16], AIR);
-
     private final List<CoverGenerationContext> context;
     private final Map<CoverType<?>, CoverSurfaceGenerator<?>> generators;
-    private final Set<CoverType<?>> localCoverTypes = new HashSet<>();
+
+    private final ThreadLocal<ChunkBuffers> buffers;
 
     public CoverSurfaceComposer(
             World world,
@@ -54,9 +49,11 @@ public class CoverSurfaceComposer implements SurfaceComposer {
             boolean decorate,
             IBlockState replaceBlock
     ) {
-        this.random = new Random(world.getWorldInfo().getSeed() ^ DEPTH_SEED);
-        this.depthNoise = new NoiseGeneratorPerlin(this.random, 4);
-        this.coverMap = new PseudoRandomMap(world.getWorldInfo().getSeed(), this.random.nextLong());
+        long worldSeed = world.getWorldInfo().getSeed();
+        Random random = new Random(worldSeed ^ DEPTH_SEED);
+        this.depthNoise = new NoiseGeneratorPerlin(random, 4);
+        long coverMapSeed = random.nextLong();
+        this.buffers = ThreadLocal.withInitial(() -> new ChunkBuffers(new PseudoRandomMap(worldSeed, coverMapSeed)));
 
         this.coverComponent = coverComponent;
 
@@ -72,69 +69,79 @@ public class CoverSurfaceComposer implements SurfaceComposer {
         int globalX = chunkX << 4;
         int globalZ = chunkZ << 4;
 
+        ChunkBuffers buffers = this.buffers.get();
+        PseudoRandomMap coverMap = buffers.coverMap;
+
         CoverRasterTile coverRaster = regionHandler.getCachedChunkRaster(this.coverComponent);
 
-        this.depthBuffer = this.depthNoise.getRegion(this.depthBuffer, globalX, globalZ, 16, 16, 0.0625, 0.0625, 1.0);
+        buffers.depthBuffer = this.depthNoise.getRegion(buffers.depthBuffer, globalX, globalZ, 16, 16, 0.0625, 0.0625, 1.0);
 
-        for (CoverGenerationContext context : this.context) {
-            context.prepareChunk(regionHandler);
-        }
+        synchronized (CoverGenerator.GENERATION_LOCK) {
+            for (CoverGenerationContext context : this.context) {
+                context.prepareChunk(regionHandler);
+            }
 
-        this.populateBlockCover(coverRaster, globalX, globalZ);
+            this.populateBlockCover(buffers, coverRaster, globalX, globalZ);
+        }
 
         for (int localZ = 0; localZ < 16; localZ++) {
             for (int localX = 0; localX < 16; localX++) {
-                this.coverMap.initPosSeed(localX + globalX, localZ + globalZ);
-                this.coverColumn(primer, localX, localZ, this.depthBuffer[localX + localZ * 16]);
+                coverMap.initPosSeed(localX + globalX, localZ + globalZ);
+                this.coverColumn(buffers, primer, localX, localZ, buffers.depthBuffer[localX + localZ * 16]);
             }
         }
 
         if (this.decorate) {
-            this.coverMap.initPosSeed(globalX, globalZ);
-            long randomSeed = this.coverMap.next();
-
-            for (CoverType type : this.localCoverTypes) {
-                CoverSurfaceGenerator<?> generator = this.generators.get(type);
-                if (generator != null) {
-                    this.random.setSeed(randomSeed);
-                    this.random.setSeed(this.random.nextLong());
-                    generator.decorate(globalX, globalZ, new CoverChunkPrimer(primer), this.random);
-                } else {
-                    Terrarium.LOGGER.warn("Tried to generate with non-registered cover: {}", type);
+            coverMap.initPosSeed(globalX, globalZ);
+            long randomSeed = coverMap.next();
+
+            synchronized (CoverGenerator.GENERATION_LOCK) {
+                BitSet localCoverIds = buffers.localCoverIds;
+                for (int id = localCoverIds.nextSetBit(0); id >= 0; id = localCoverIds.nextSetBit(id + 1)) {
+                    CoverType<?> type = CoverTypeRegistry.byId(id);
+                    CoverSurfaceGenerator<?> generator = this.generators.get(type);
+                    if (generator != null) {
+                        buffers.random.setSeed(randomSeed);
+                        buffers.random.setSeed(buffers.random.nextLong());
+                        generator.decorate(globalX, globalZ, new CoverChunkPrimer(primer), buffers.random);
+                    } else {
+                        Terrarium.LOGGER.warn("Tried to generate with non-registered cover: {}", type);
+                    }
                 }
             }
         }
     }
 
-    private void populateBlockCover(CoverRasterTile coverBuffer, int globalX, int globalZ) {
-        this.localCoverTypes.clear();
+    private void populateBlockCover(ChunkBuffers buffers, CoverRasterTile coverBuffer, int globalX, int globalZ) {
+        BitSet localCoverIds = buffers.localCoverIds;
+        localCoverIds.clear();
         for (int localZ = 0; localZ < 16; localZ++) {
             for (int localX = 0; localX < 16; localX++) {
-                this.localCoverTypes.add(coverBuffer.get(localX, localZ));
+                localCoverIds.set(coverBuffer.getCoverId(localX, localZ));
             }
         }
 
-        this.coverMap.initPosSeed(globalX, globalZ);
-        long randomSeed = this.coverMap.next();
-        for (CoverType type : this.localCoverTypes) {
-            CoverSurfaceGenerator<?> generator = this.generators.get(type);
+        buffers.coverMap.initPosSeed(globalX, globalZ);
+        long randomSeed = buffers.coverMap.next();
+        for (int id = localCoverIds.nextSetBit(0); id >= 0; id = localCoverIds.nextSetBit(id + 1)) {
+            CoverSurfaceGenerator<?> generator = this.generators.get(CoverTypeRegistry.byId(id));
             if (generator != null) {
-                this.random.setSeed(randomSeed);
+                buffers.random.setSeed(randomSeed);
 
-                generator.populateBlockCover(this.random, globalX, globalZ, this.coverBlockBuffer);
-                generator.populateBlockFiller(this.random, globalX, globalZ, this.fillerBlockBuffer);
+                generator.populateBlockCover(buffers.random, globalX, globalZ, buffers.coverBlockBuffer);
+                generator.populateBlockFiller(buffers.random, globalX, globalZ, buffers.fillerBlockBuffer);
             }
         }
     }
 
-    private void coverColumn(ChunkPrimer primer, int localX, int localZ, double depthNoise) {
+    private void coverColumn(ChunkBuffers buffers, ChunkPrimer primer, int localX, int localZ, double depthNoise) {
         int index = localX + localZ * 16;
 
-        IBlockState currentTop = this.coverBlockBuffer[index];
-        IBlockState currentFiller = this.fillerBlockBuffer[index];
+        IBlockState currentTop = buffers.coverBlockBuffer[index];
+        IBlockState currentFiller = buffers.fillerBlockBuffer[index];
 
         int depth = -1;
-        int soilDepth = Math.max((int) (depthNoise / 3.0 + 3.0 + this.coverMap.nextDouble() * 0.25), 1);
+        int soilDepth = Math.max((int) (depthNoise / 3.0 + 3.0 + buffers.coverMap.nextDouble() * 0.25), 1);
 
         for (int localY = 255; localY >= 0; localY--) {
             IBlockState current = primer.getBlockState(localX, localY, localZ);
@@ -159,4 +166,20 @@ public class CoverSurfaceComposer implements SurfaceComposer {
             }
         }
     }
+
+    private static class ChunkBuffers {
+        private final Random random = new Random();
+        private final PseudoRandomMap coverMap;
+
+        private double[] depthBuffer = new double[16 * 16];
+
+        private final IBlockState[] coverBlockBuffer = ArrayUtils.defaulted(new IBlockState[16 * 16], AIR);
+        private final IBlockState[] fillerBlockBuffer = ArrayUtils.defaulted(new IBlockState[16 * 16], AIR);
+
+        private final BitSet localCoverIds = new BitSet(CoverTypeRegistry.MAX_TYPES);
+
+        private ChunkBuffers(PseudoRandomMap coverMap) {
+            this.coverMap = coverMap;
+        }
+    }
 }
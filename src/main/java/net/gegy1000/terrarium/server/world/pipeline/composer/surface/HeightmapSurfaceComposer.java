@@ -10,8 +10,6 @@ public class HeightmapSurfaceComposer implements SurfaceComposer {
     private final RegionComponentType<ShortRasterTile> heightComponent;
     private final IBlockState block;
 
-    private final ShortRasterTile chunkBuffer = new ShortRasterTile(new short[16 * 16], 16, 16);
-
     public HeightmapSurfaceComposer(RegionComponentType<ShortRasterTile> heightComponent, IBlockState block) {
         this.heightComponent = heightComponent;
         this.block = block;
@@ -19,14 +17,11 @@ public class HeightmapSurfaceComposer implements SurfaceComposer {
 
     @Override
     public void composeSurface(ChunkPrimer primer, GenerationRegionHandler regionHandler, int chunkX, int chunkZ) {
-        int globalX = chunkX << 4;
-        int globalZ = chunkZ << 4;
-
-        regionHandler.fillRaster(this.heightComponent, this.chunkBuffer, globalX, globalZ, 16, 16);
+        ShortRasterTile heightRaster = regionHandler.getCachedChunkRaster(this.heightComponent);
 
         for (int localZ = 0; localZ < 16; localZ++) {
             for (int localX = 0; localX < 16; localX++) {
-                int height = this.chunkBuffer.getShort(localX, localZ);
+                int height = heightRaster.getShort(localX, localZ);
                 for (int localY = 1; localY <= height; localY++) {
                     primer.setBlockState(localX, localY, localZ, this.block);
                 }
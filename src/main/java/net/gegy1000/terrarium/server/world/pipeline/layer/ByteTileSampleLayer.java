@@ -4,13 +4,12 @@ import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ByteRasterTile;
-import net.minecraft.util.math.MathHelper;
 
 public class ByteTileSampleLayer extends TiledDataSampleLayer<ByteRasterTile> {
     private final TiledDataSource<? extends ByteRasterTile> source;
 
     public ByteTileSampleLayer(TiledDataSource<? extends ByteRasterTile> source) {
-        super(MathHelper.floor(source.getTileSize().getX()), MathHelper.floor(source.getTileSize().getZ()));
+        super(source);
         this.source = source;
     }
 
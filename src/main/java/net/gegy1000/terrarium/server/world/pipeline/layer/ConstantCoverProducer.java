@@ -5,8 +5,6 @@ import net.gegy1000.terrarium.server.world.pipeline.DataLayerProducer;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
 
-import java.util.Arrays;
-
 public class ConstantCoverProducer implements DataLayerProducer<CoverRasterTile> {
     private final CoverType value;
 
@@ -16,8 +14,6 @@ public class ConstantCoverProducer implements DataLayerProducer<CoverRasterTile>
 
     @Override
     public CoverRasterTile apply(DataView view) {
-        CoverType[] data = new CoverType[view.getWidth() * view.getHeight()];
-        Arrays.fill(data, this.value);
-        return new CoverRasterTile(data, view.getWidth(), view.getHeight());
+        return new CoverRasterTile(CoverRasterTile.filled(view.getWidth() * view.getHeight(), this.value), view.getWidth(), view.getHeight());
     }
 }
@@ -1,47 +1,57 @@
 package net.gegy1000.terrarium.server.world.pipeline.layer;
 
-import net.gegy1000.terrarium.server.util.ArrayUtils;
-import net.gegy1000.terrarium.server.world.cover.CoverType;
-import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ConstantCoverRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterAccess;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.CoverRasterTile;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.RasterDataAccess;
-import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
 
 public class CoverTileSampleLayer extends TiledDataSampleLayer<CoverRasterTile> {
-    private final TiledDataSource<? extends RasterDataAccess<CoverType>> source;
+    private final TiledDataSource<? extends CoverRasterAccess> source;
 
-    public CoverTileSampleLayer(TiledDataSource<? extends RasterDataAccess<CoverType>> source) {
-        super(MathHelper.floor(source.getTileSize().getX()), MathHelper.floor(source.getTileSize().getZ()));
+    public CoverTileSampleLayer(TiledDataSource<? extends CoverRasterAccess> source) {
+        super(source);
         this.source = source;
     }
 
     @Override
     public CoverRasterTile apply(DataView view) {
-        Handler handler = new Handler(view.getWidth(), view.getHeight());
-        this.sampleTiles(handler, view);
-
-        return new CoverRasterTile(handler.data, view.getWidth(), view.getHeight());
+        CoverRasterTile result = new CoverRasterTile(view);
+        this.sampleTiles(new Handler(result), view);
+        return result;
     }
 
-    private class Handler implements DataHandler<RasterDataAccess<CoverType>> {
-        private final CoverType[] data;
-        private final int width;
+    private class Handler implements DataHandler<CoverRasterAccess> {
+        private final CoverRasterTile result;
 
-        private Handler(int width, int height) {
-            this.data = ArrayUtils.defaulted(new CoverType[width * height], TerrariumCoverTypes.PLACEHOLDER);
-            this.width = width;
+        private Handler(CoverRasterTile result) {
+            this.result = result;
+        }
+
+        @Override
+        public void put(CoverRasterAccess tile, int localX, int localY, int resultX, int resultY) {
+            this.result.setCoverId(resultX, resultY, tile.getCoverId(localX, localY));
         }
 
         @Override
-        public void put(RasterDataAccess<CoverType> tile, int localX, int localY, int resultX, int resultY) {
-            this.data[resultX + resultY * this.width] = tile.get(localX, localY);
+        public void putRegion(CoverRasterAccess tile, int localX, int localY, int resultX, int resultY, int width, int height) {
+            if (tile instanceof ConstantCoverRasterTile) {
+                byte coverId = (byte) ((ConstantCoverRasterTile) tile).getCoverId();
+                byte[] cover = this.result.getCoverIds();
+                for (int offsetY = 0; offsetY < height; offsetY++) {
+                    int index = resultX + (resultY + offsetY) * this.result.getWidth();
+                    Arrays.fill(cover, index, index + width, coverId);
+                }
+            } else {
+                DataHandler.super.putRegion(tile, localX, localY, resultX, resultY, width, height);
+            }
         }
 
         @Override
-        public RasterDataAccess<CoverType> getTile(DataTilePos pos) {
+        public CoverRasterAccess getTile(DataTilePos pos) {
             return CoverTileSampleLayer.this.source.getTile(pos);
         }
     }
@@ -1,67 +1,58 @@
 package net.gegy1000.terrarium.server.world.pipeline.layer;
 
 import net.gegy1000.terrarium.server.util.Interpolation;
+import net.gegy1000.terrarium.server.util.InterpolationKernel;
 import net.gegy1000.terrarium.server.world.coordinate.CoordinateState;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.NumberRasterTile;
-import net.minecraft.util.math.MathHelper;
 
-public abstract class InterpolatingScaleLayer<T extends NumberRasterTile<?>> extends BufferedScalingLayer<T> {
+public abstract class InterpolatingScaleLayer<T extends NumberRasterTile> extends BufferedScalingLayer<T> {
     private final Interpolation.Method interpolationMethod;
-    private final double[][] sampleBuffer;
+
+    private final ThreadLocal<double[]> rowBuffer = ThreadLocal.withInitial(() -> new double[0]);
+    private final ThreadLocal<double[]> horizontalBuffer = ThreadLocal.withInitial(() -> new double[0]);
+    private final ThreadLocal<double[]> resultBuffer = ThreadLocal.withInitial(() -> new double[0]);
 
     public InterpolatingScaleLayer(Interpolation.Method interpolationMethod, CoordinateState coordinateState) {
         super(interpolationMethod.getBackward(), interpolationMethod.getForward() + 1, coordinateState);
-
         this.interpolationMethod = interpolationMethod;
-        int pointCount = interpolationMethod.getPointCount();
-
-        this.sampleBuffer = new double[pointCount][pointCount];
     }
 
-    protected final void scaleRegion(T sampled, T result, double scaleFactorX, double scaleFactorZ, double originOffsetX, double originOffsetZ) {
-        int startX = 0;
-        int startZ = 0;
-        int endX = result.getWidth();
-        int endZ = result.getHeight();
+    protected abstract void readRow(T tile, int z, double[] row);
 
-        if (scaleFactorX < 0.0) {
-            scaleFactorX = -scaleFactorX;
-        }
+    protected abstract void writeValues(T tile, double[] values);
 
-        if (scaleFactorZ < 0.0) {
-            scaleFactorZ = -scaleFactorZ;
-        }
+    protected final void scaleRegion(T sampled, T result, double scaleFactorX, double scaleFactorZ, double originOffsetX, double originOffsetZ) {
+        int width = result.getWidth();
+        int height = result.getHeight();
 
-        int stepX = Integer.signum(endX - startX);
-        int stepZ = Integer.signum(endZ - startZ);
+        InterpolationKernel kernelX = InterpolationKernel.create(this.interpolationMethod, width, Math.abs(scaleFactorX), originOffsetX + this.lowerSampleBuffer);
+        InterpolationKernel kernelZ = InterpolationKernel.create(this.interpolationMethod, height, Math.abs(scaleFactorZ), originOffsetZ + this.lowerSampleBuffer);
 
-        for (int scaledZ = startZ; scaledZ != endZ; scaledZ += stepZ) {
-            double sampleZ = scaledZ * scaleFactorZ + originOffsetZ + this.lowerSampleBuffer;
-            int originZ = MathHelper.floor(sampleZ);
-            double intermediateZ = sampleZ - originZ;
+        int minRow = kernelZ.getMinOrigin();
+        int maxRow = kernelZ.getMaxOrigin();
 
-            for (int scaledX = startX; scaledX != endX; scaledX += stepX) {
-                double sampleX = scaledX * scaleFactorX + originOffsetX + this.lowerSampleBuffer;
-                int originX = MathHelper.floor(sampleX);
-                double intermediateX = sampleX - originX;
+        double[] row = this.getBuffer(this.rowBuffer, sampled.getWidth());
+        double[] horizontal = this.getBuffer(this.horizontalBuffer, (maxRow - minRow) * width);
+        double[] values = this.getBuffer(this.resultBuffer, width * height);
 
-                double heightValue = this.interpolatePoint(sampled, originX, originZ, intermediateX, intermediateZ);
-                result.setDouble(scaledX, scaledZ, heightValue);
-            }
+        for (int sourceZ = minRow; sourceZ < maxRow; sourceZ++) {
+            this.readRow(sampled, sourceZ, row);
+            kernelX.apply(row, 0, 1, horizontal, (sourceZ - minRow) * width, 1);
         }
-    }
 
-    private double interpolatePoint(T sampled, int originX, int originZ, double intermediateX, double intermediateZ) {
-        int backward = this.interpolationMethod.getBackward();
-        int pointCount = this.interpolationMethod.getPointCount();
-        for (int sampleZ = 0; sampleZ < pointCount; sampleZ++) {
-            int globalZ = originZ + sampleZ - backward;
-            for (int sampleX = 0; sampleX < pointCount; sampleX++) {
-                int globalX = originX + sampleX - backward;
-                this.sampleBuffer[sampleX][sampleZ] = sampled.getDouble(globalX, globalZ);
-            }
+        for (int localX = 0; localX < width; localX++) {
+            kernelZ.apply(horizontal, localX - minRow * width, width, values, localX, width);
         }
 
-        return (short) this.interpolationMethod.lerp2d(this.sampleBuffer, intermediateX, intermediateZ);
+        this.writeValues(result, values);
+    }
+
+    private double[] getBuffer(ThreadLocal<double[]> buffer, int size) {
+        double[] array = buffer.get();
+        if (array.length < size) {
+            array = new double[size];
+            buffer.set(array);
+        }
+        return array;
     }
 }
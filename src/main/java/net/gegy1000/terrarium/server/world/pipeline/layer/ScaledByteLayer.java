@@ -16,4 +16,22 @@ public class ScaledByteLayer extends InterpolatingScaleLayer<ByteRasterTile> {
         this.scaleRegion(parent, resultHeights, scaleFactorX, scaleFactorY, originOffsetX, originOffsetY);
         return resultHeights;
     }
+
+    @Override
+    protected void readRow(ByteRasterTile tile, int z, double[] row) {
+        byte[] data = tile.getByteData();
+        int width = tile.getWidth();
+        int offset = z * width;
+        for (int x = 0; x < width; x++) {
+            row[x] = data[offset + x];
+        }
+    }
+
+    @Override
+    protected void writeValues(ByteRasterTile tile, double[] values) {
+        byte[] data = tile.getByteData();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) values[i];
+        }
+    }
 }
@@ -16,7 +16,7 @@ public class ScaledCoverLayer extends BufferedScalingLayer<CoverRasterTile> {
     @Override
     protected CoverRasterTile apply(CoverRasterTile parent, DataView view, DataView parentView, double scaleFactorX, double scaleFactorY, double originOffsetX, double originOffsetY) {
         CoverRasterTile result = new CoverRasterTile(view);
-        this.voronoi.scale(parent.getData(), result.getData(), parentView, view, scaleFactorX, scaleFactorY, originOffsetX, originOffsetY);
+        this.voronoi.scale(parent.getCoverIds(), result.getCoverIds(), parentView, view, scaleFactorX, scaleFactorY, originOffsetX, originOffsetY);
         return result;
     }
 
@@ -16,4 +16,22 @@ public class ScaledShortLayer extends InterpolatingScaleLayer<ShortRasterTile> {
         this.scaleRegion(parent, resultHeights, scaleFactorX, scaleFactorY, originOffsetX, originOffsetY);
         return resultHeights;
     }
+
+    @Override
+    protected void readRow(ShortRasterTile tile, int z, double[] row) {
+        short[] data = tile.getShortData();
+        int width = tile.getWidth();
+        int offset = z * width;
+        for (int x = 0; x < width; x++) {
+            row[x] = data[offset + x];
+        }
+    }
+
+    @Override
+    protected void writeValues(ShortRasterTile tile, double[] values) {
+        short[] data = tile.getShortData();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (short) values[i];
+        }
+    }
 }
@@ -3,14 +3,17 @@ package net.gegy1000.terrarium.server.world.pipeline.layer;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
 import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ConstantShortRasterTile;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterAccess;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.ShortRasterTile;
-import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
 
 public class ShortTileSampleLayer extends TiledDataSampleLayer<ShortRasterTile> {
-    private final TiledDataSource<? extends ShortRasterTile> source;
+    private final TiledDataSource<? extends ShortRasterAccess> source;
 
-    public ShortTileSampleLayer(TiledDataSource<? extends ShortRasterTile> source) {
-        super(MathHelper.floor(source.getTileSize().getX()), MathHelper.floor(source.getTileSize().getZ()));
+    public ShortTileSampleLayer(TiledDataSource<? extends ShortRasterAccess> source) {
+        super(source);
         this.source = source;
     }
 
@@ -22,7 +25,7 @@ public class ShortTileSampleLayer extends TiledDataSampleLayer<ShortRasterTile>
         return new ShortRasterTile(handler.data, view.getWidth(), view.getHeight());
     }
 
-    private class Handler implements DataHandler<ShortRasterTile> {
+    private class Handler implements DataHandler<ShortRasterAccess> {
         private final short[] data;
         private final int width;
 
@@ -32,12 +35,25 @@ public class ShortTileSampleLayer extends TiledDataSampleLayer<ShortRasterTile>
         }
 
         @Override
-        public void put(ShortRasterTile tile, int localX, int localY, int resultX, int resultY) {
+        public void put(ShortRasterAccess tile, int localX, int localY, int resultX, int resultY) {
             this.data[resultX + resultY * this.width] = tile.getShort(localX, localY);
         }
 
         @Override
-        public ShortRasterTile getTile(DataTilePos pos) {
+        public void putRegion(ShortRasterAccess tile, int localX, int localY, int resultX, int resultY, int width, int height) {
+            if (tile instanceof ConstantShortRasterTile) {
+                short value = ((ConstantShortRasterTile) tile).getValue();
+                for (int offsetY = 0; offsetY < height; offsetY++) {
+                    int index = resultX + (resultY + offsetY) * this.width;
+                    Arrays.fill(this.data, index, index + width, value);
+                }
+            } else {
+                DataHandler.super.putRegion(tile, localX, localY, resultX, resultY, width, height);
+            }
+        }
+
+        @Override
+        public ShortRasterAccess getTile(DataTilePos pos) {
             return ShortTileSampleLayer.this.source.getTile(pos);
         }
     }
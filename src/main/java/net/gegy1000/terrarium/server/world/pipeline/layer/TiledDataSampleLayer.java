@@ -3,18 +3,45 @@ package net.gegy1000.terrarium.server.world.pipeline.layer;
 import net.gegy1000.terrarium.server.world.pipeline.DataLayerProducer;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 import net.gegy1000.terrarium.server.world.pipeline.source.DataTilePos;
+import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class TiledDataSampleLayer<T extends TiledDataAccess> implements DataLayerProducer<T> {
+    private final TiledDataSource<?> source;
     private final int tileWidth;
     private final int tileHeight;
 
-    protected TiledDataSampleLayer(int tileWidth, int tileHeight) {
-        this.tileWidth = tileWidth;
-        this.tileHeight = tileHeight;
+    protected TiledDataSampleLayer(TiledDataSource<?> source) {
+        this.source = source;
+        this.tileWidth = MathHelper.floor(source.getTileSize().getX());
+        this.tileHeight = MathHelper.floor(source.getTileSize().getZ());
+    }
+
+    @Override
+    public CompletableFuture<?> prefetch(DataView view) {
+        int minTileX = Math.floorDiv(view.getX(), this.tileWidth);
+        int maxTileX = Math.floorDiv((view.getX() + view.getWidth()), this.tileWidth);
+        int minTileY = Math.floorDiv(view.getY(), this.tileHeight);
+        int maxTileY = Math.floorDiv((view.getY() + view.getHeight()), this.tileHeight);
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                futures.add(this.source.getTileAsync(new DataTilePos(tileX, tileY)));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
     protected final <V, H extends DataHandler<V>> void sampleTiles(H dataHandler, DataView view) {
+        this.prefetch(view).exceptionally(throwable -> null).join();
+
         int minTileX = Math.floorDiv(view.getX(), this.tileWidth);
         int maxTileX = Math.floorDiv((view.getX() + view.getWidth()), this.tileWidth);
         int minTileY = Math.floorDiv(view.getY(), this.tileHeight);
@@ -31,12 +58,10 @@ public abstract class TiledDataSampleLayer<T extends TiledDataAccess> implements
                 int maxSampleX = Math.min(this.tileWidth, (view.getX() + view.getWidth()) - minTilePosX);
                 int maxSampleY = Math.min(this.tileHeight, (view.getY() + view.getHeight()) - minTilePosY);
 
-                for (int localY = minSampleY; localY < maxSampleY; localY++) {
-                    int resultY = (localY + minTilePosY) - view.getY();
-                    for (int localX = minSampleX; localX < maxSampleX; localX++) {
-                        int resultX = (localX + minTilePosX) - view.getX();
-                        dataHandler.put(tile, localX, localY, resultX, resultY);
-                    }
+                if (minSampleX < maxSampleX && minSampleY < maxSampleY) {
+                    int resultX = (minSampleX + minTilePosX) - view.getX();
+                    int resultY = (minSampleY + minTilePosY) - view.getY();
+                    dataHandler.putRegion(tile, minSampleX, minSampleY, resultX, resultY, maxSampleX - minSampleX, maxSampleY - minSampleY);
                 }
             }
         }
@@ -45,6 +70,14 @@ public abstract class TiledDataSampleLayer<T extends TiledDataAccess> implements
     protected interface DataHandler<T> {
         void put(T tile, int localX, int localY, int resultX, int resultY);
 
+        default void putRegion(T tile, int localX, int localY, int resultX, int resultY, int width, int height) {
+            for (int offsetY = 0; offsetY < height; offsetY++) {
+                for (int offsetX = 0; offsetX < width; offsetX++) {
+                    this.put(tile, localX + offsetX, localY + offsetY, resultX + offsetX, resultY + offsetY);
+                }
+            }
+        }
+
         T getTile(DataTilePos pos);
     }
 }
@@ -0,0 +1,142 @@
+package net.gegy1000.terrarium.server.world.pipeline.source;
+
+import net.gegy1000.terrarium.Terrarium;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class MappedRasterStore {
+    private static final int MAGIC = 0x54524153;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    private final File root;
+
+    public MappedRasterStore(File root) {
+        this.root = root;
+    }
+
+    @Nullable
+    public MappedRaster load(String name, int cellBytes) {
+        File file = this.getFile(name);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != cellBytes) {
+                Terrarium.LOGGER.warn("Ignoring invalid local raster {}", file);
+                return null;
+            }
+
+            int width = buffer.getInt(8);
+            int height = buffer.getInt(12);
+            int offsetX = buffer.getInt(16);
+            int offsetZ = buffer.getInt(20);
+            if (buffer.capacity() - HEADER_SIZE != width * height * cellBytes) {
+                Terrarium.LOGGER.warn("Ignoring truncated local raster {}", file);
+                return null;
+            }
+
+            buffer.position(HEADER_SIZE);
+            return new MappedRaster(buffer.slice(), width, height, offsetX, offsetZ);
+        } catch (IOException e) {
+            Terrarium.LOGGER.warn("Failed to map local raster {}", file, e);
+        }
+
+        return null;
+    }
+
+    @Nullable
+    public MappedRaster store(String name, ByteBuffer data, int cellBytes, int width, int height, int offsetX, int offsetZ) {
+        if (!this.root.exists()) {
+            this.root.mkdirs();
+        }
+
+        File file = this.getFile(name);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(cellBytes).putInt(width).putInt(height).putInt(offsetX).putInt(offsetZ);
+        header.flip();
+
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(name + ".", ".tmp", this.root);
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer source = data.duplicate();
+                source.rewind();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+            }
+            moveIntoPlace(tempFile, file);
+        } catch (IOException e) {
+            Terrarium.LOGGER.warn("Failed to store local raster {}", file, e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            return null;
+        }
+
+        return this.load(name, cellBytes);
+    }
+
+    private File getFile(String name) {
+        return new File(this.root, name + ".raster");
+    }
+
+    private static void moveIntoPlace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static class MappedRaster {
+        private final ByteBuffer data;
+        private final int width;
+        private final int height;
+        private final int offsetX;
+        private final int offsetZ;
+
+        private MappedRaster(ByteBuffer data, int width, int height, int offsetX, int offsetZ) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.offsetX = offsetX;
+            this.offsetZ = offsetZ;
+        }
+
+        public ByteBuffer getData() {
+            return this.data;
+        }
+
+        public int getWidth() {
+            return this.width;
+        }
+
+        public int getHeight() {
+            return this.height;
+        }
+
+        public int getOffsetX() {
+            return this.offsetX;
+        }
+
+        public int getOffsetZ() {
+            return this.offsetZ;
+        }
+    }
+}
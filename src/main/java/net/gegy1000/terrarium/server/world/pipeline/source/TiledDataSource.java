@@ -1,39 +1,45 @@
 package net.gegy1000.terrarium.server.world.pipeline.source;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.gegy1000.terrarium.Terrarium;
+import net.gegy1000.terrarium.server.util.cache.WeightedCache;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public abstract class TiledDataSource<T extends TiledDataAccess> {
-    private final LoadingCache<DataTilePos, T> tileCache;
+    private static final ExecutorService LOAD_SERVICE = Executors.newFixedThreadPool(4, new ThreadFactoryBuilder().setNameFormat("terrarium-tile-loader-%d").setDaemon(true).build());
+
+    private static final ThreadLocal<Integer> FAILED_LOADS = ThreadLocal.withInitial(() -> 0);
+
+    private final WeightedCache<DataTilePos, T> tileCache;
+    private final Set<DataTilePos> failedTiles = ConcurrentHashMap.newKeySet();
 
     protected final Coordinate tileSize;
 
-    protected TiledDataSource(Coordinate tileSize, int tileCacheSize) {
+    protected TiledDataSource(Coordinate tileSize) {
         this.tileSize = tileSize;
-        this.tileCache = CacheBuilder.newBuilder()
-                .expireAfterAccess(30, TimeUnit.SECONDS)
-                .maximumSize(tileCacheSize)
-                .build(new CacheLoader<DataTilePos, T>() {
-                    @Override
-                    public T load(DataTilePos key) {
-                        try {
-                            T tile = TiledDataSource.this.loadTile(key);
-                            if (tile != null) {
-                                return tile;
-                            }
-                        } catch (SourceException e) {
-                            Terrarium.LOGGER.error("Failed to load from data source", e);
-                        }
-                        return TiledDataSource.this.getDefaultTile();
-                    }
-                });
+        this.tileCache = new WeightedCache<>(this.getClass().getSimpleName(), TiledDataAccess::estimateMemoryUsage, 30, TimeUnit.SECONDS);
+    }
+
+    private T load(DataTilePos key) {
+        try {
+            T tile = this.loadTile(key);
+            this.failedTiles.remove(key);
+            if (tile != null) {
+                return tile;
+            }
+        } catch (SourceException e) {
+            Terrarium.LOGGER.error("Failed to load from data source", e);
+            this.failedTiles.add(key);
+        }
+        return this.getDefaultTile();
     }
 
     public Coordinate getTileSize() {
@@ -42,14 +48,31 @@ public abstract class TiledDataSource<T extends TiledDataAccess> {
 
     public T getTile(DataTilePos key) {
         try {
-            return this.tileCache.get(key);
-        } catch (ExecutionException e) {
+            T tile = this.tileCache.get(key, this::load);
+            if (this.failedTiles.contains(key)) {
+                TiledDataSource.markFailedLoads(1);
+            }
+            return tile;
+        } catch (RuntimeException e) {
+            TiledDataSource.markFailedLoads(1);
             LoadingStateHandler.putState(LoadingState.LOADING_NO_CONNECTION);
             Terrarium.LOGGER.error("Failed to load tile at {}", key, e);
             return this.getDefaultTile();
         }
     }
 
+    public CompletableFuture<T> getTileAsync(DataTilePos key) {
+        return this.tileCache.getAsync(key, this::load, LOAD_SERVICE);
+    }
+
+    public static int getFailedLoads() {
+        return FAILED_LOADS.get();
+    }
+
+    public static void markFailedLoads(int count) {
+        FAILED_LOADS.set(FAILED_LOADS.get() + count);
+    }
+
     public abstract T loadTile(DataTilePos key) throws SourceException;
 
     public abstract Class<T> getTileType();
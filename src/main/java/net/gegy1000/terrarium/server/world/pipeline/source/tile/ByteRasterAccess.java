@@ -0,0 +1,13 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public interface ByteRasterAccess extends TiledDataAccess {
+    int getWidth();
+
+    int getHeight();
+
+    byte getByte(int x, int z);
+
+    default int getUnsigned(int x, int z) {
+        return this.getByte(x, z) & 0xFF;
+    }
+}
@@ -2,7 +2,7 @@ package net.gegy1000.terrarium.server.world.pipeline.source.tile;
 
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 
-public class ByteRasterTile implements TiledDataAccess, NumberRasterTile<Byte> {
+public class ByteRasterTile implements ByteRasterAccess, RasterTile<ByteRasterTile>, CroppableTile<ByteRasterTile>, NumberRasterTile {
     private final byte[] data;
     private final int width;
     private final int height;
@@ -22,42 +22,43 @@ public class ByteRasterTile implements TiledDataAccess, NumberRasterTile<Byte> {
         this.height = view.getHeight();
     }
 
-    @Override
-    @Deprecated
-    public void set(int x, int z, Byte value) {
-        this.data[x + z * this.width] = value;
-    }
-
     public void setByte(int x, int z, byte value) {
         this.data[x + z * this.width] = value;
     }
 
     @Override
-    @Deprecated
-    public Byte get(int x, int z) {
-        return this.getByte(x, z);
+    public byte getByte(int x, int z) {
+        return this.data[x + z * this.width];
     }
 
-    public byte getByte(int x, int y) {
-        return this.data[x + y * this.width];
+    public byte[] getByteData() {
+        return this.data;
     }
 
-    public int getUnsigned(int x, int y) {
-        return this.getByte(x, y) & 0xFF;
+    @Override
+    public void copyRegionInto(ByteRasterTile destination, int srcX, int srcZ, int destX, int destZ, int width, int height) {
+        for (int localZ = 0; localZ < height; localZ++) {
+            int srcIndex = srcX + (srcZ + localZ) * this.width;
+            int destIndex = destX + (destZ + localZ) * destination.width;
+            System.arraycopy(this.data, srcIndex, destination.data, destIndex, width);
+        }
     }
 
     @Override
-    public Byte[] getData() {
-        byte[] data = this.getByteData();
-        Byte[] result = new Byte[data.length];
-        for (int i = 0; i < data.length; i++) {
-            result[i] = data[i];
-        }
+    public ByteRasterTile crop(int x, int z, int width, int height) {
+        ByteRasterTile result = new ByteRasterTile(new byte[width * height], width, height);
+        this.copyRegionInto(result, x, z, 0, 0, width, height);
         return result;
     }
 
-    public byte[] getByteData() {
-        return this.data;
+    @Override
+    public ByteRasterTile createEmpty(int width, int height) {
+        return new ByteRasterTile(new byte[width * height], width, height);
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return (long) this.data.length * Byte.BYTES;
     }
 
     @Override
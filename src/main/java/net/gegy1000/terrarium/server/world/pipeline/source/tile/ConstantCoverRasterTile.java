@@ -0,0 +1,40 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
+
+public class ConstantCoverRasterTile implements CoverRasterAccess {
+    private final int coverId;
+    private final int width;
+    private final int height;
+
+    public ConstantCoverRasterTile(CoverType<?> coverType, int width, int height) {
+        this.coverId = CoverTypeRegistry.getId(coverType);
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getCoverId(int x, int z) {
+        return this.coverId;
+    }
+
+    public int getCoverId() {
+        return this.coverId;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return 0;
+    }
+}
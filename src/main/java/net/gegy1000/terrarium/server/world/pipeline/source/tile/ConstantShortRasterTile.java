@@ -0,0 +1,37 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public class ConstantShortRasterTile implements ShortRasterAccess {
+    private final short value;
+    private final int width;
+    private final int height;
+
+    public ConstantShortRasterTile(short value, int width, int height) {
+        this.value = value;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public short getShort(int x, int z) {
+        return this.value;
+    }
+
+    public short getValue() {
+        return this.value;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return 0;
+    }
+}
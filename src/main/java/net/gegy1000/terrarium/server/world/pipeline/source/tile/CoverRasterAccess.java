@@ -0,0 +1,9 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public interface CoverRasterAccess extends TiledDataAccess {
+    int getWidth();
+
+    int getHeight();
+
+    int getCoverId(int x, int z);
+}
@@ -1,18 +1,20 @@
 package net.gegy1000.terrarium.server.world.pipeline.source.tile;
 
-import net.gegy1000.terrarium.server.util.ArrayUtils;
 import net.gegy1000.terrarium.server.world.cover.CoverType;
+import net.gegy1000.terrarium.server.world.cover.CoverTypeRegistry;
 import net.gegy1000.terrarium.server.world.cover.TerrariumCoverTypes;
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 
-public class CoverRasterTile implements RasterDataAccess<CoverType>, TiledDataAccess {
-    private final CoverType[] cover;
+import java.util.Arrays;
+
+public class CoverRasterTile implements CoverRasterAccess, RasterTile<CoverRasterTile>, CroppableTile<CoverRasterTile> {
+    private final byte[] cover;
     private final int offsetX;
     private final int offsetZ;
     private final int width;
     private final int height;
 
-    public CoverRasterTile(CoverType[] cover, int offsetX, int offsetZ, int width, int height) {
+    public CoverRasterTile(byte[] cover, int offsetX, int offsetZ, int width, int height) {
         if (cover.length != width * height) {
             throw new IllegalArgumentException("Given width and height do not match cover length!");
         }
@@ -24,19 +26,26 @@ public class CoverRasterTile implements RasterDataAccess<CoverType>, TiledDataAc
     }
 
     public CoverRasterTile(DataView view) {
-        this.cover = new CoverType[view.getWidth() * view.getHeight()];
-        this.offsetX = 0;
-        this.offsetZ = 0;
-        this.width = view.getWidth();
-        this.height = view.getHeight();
+        this(view.getWidth(), view.getHeight());
     }
 
-    public CoverRasterTile(CoverType[] cover, int width, int height) {
+    public CoverRasterTile(byte[] cover, int width, int height) {
         this(cover, 0, 0, width, height);
     }
 
     public CoverRasterTile(int width, int height) {
-        this(ArrayUtils.defaulted(new CoverType[width * height], TerrariumCoverTypes.PLACEHOLDER), width, height);
+        this(CoverRasterTile.filled(width * height, TerrariumCoverTypes.PLACEHOLDER), width, height);
+    }
+
+    public static byte[] filled(int length, CoverType coverType) {
+        byte[] cover = new byte[length];
+        Arrays.fill(cover, (byte) CoverTypeRegistry.getId(coverType));
+        return cover;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return this.cover.length;
     }
 
     @Override
@@ -49,18 +58,45 @@ public class CoverRasterTile implements RasterDataAccess<CoverType>, TiledDataAc
         return this.height;
     }
 
-    @Override
     public void set(int x, int z, CoverType value) {
-        this.cover[(x - this.offsetX) + (z - this.offsetZ) * this.width] = value;
+        this.setCoverId(x, z, CoverTypeRegistry.getId(value));
     }
 
-    @Override
     public CoverType get(int x, int z) {
-        return this.cover[(x - this.offsetX) + (z - this.offsetZ) * this.width];
+        return CoverTypeRegistry.byId(this.getCoverId(x, z));
+    }
+
+    public void setCoverId(int x, int z, int id) {
+        this.cover[(x - this.offsetX) + (z - this.offsetZ) * this.width] = (byte) id;
     }
 
     @Override
-    public CoverType[] getData() {
+    public int getCoverId(int x, int z) {
+        return this.cover[(x - this.offsetX) + (z - this.offsetZ) * this.width] & 0xFF;
+    }
+
+    public byte[] getCoverIds() {
         return this.cover;
     }
+
+    @Override
+    public CoverRasterTile crop(int x, int z, int width, int height) {
+        CoverRasterTile result = new CoverRasterTile(new byte[width * height], width, height);
+        this.copyRegionInto(result, x + this.offsetX, z + this.offsetZ, 0, 0, width, height);
+        return result;
+    }
+
+    @Override
+    public CoverRasterTile createEmpty(int width, int height) {
+        return new CoverRasterTile(new byte[width * height], width, height);
+    }
+
+    @Override
+    public void copyRegionInto(CoverRasterTile destination, int srcX, int srcZ, int destX, int destZ, int width, int height) {
+        for (int localZ = 0; localZ < height; localZ++) {
+            int srcIndex = (srcX - this.offsetX) + (srcZ + localZ - this.offsetZ) * this.width;
+            int destIndex = (destX - destination.offsetX) + (destZ + localZ - destination.offsetZ) * destination.width;
+            System.arraycopy(this.cover, srcIndex, destination.cover, destIndex, width);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public interface CroppableTile<T extends CroppableTile<T>> extends TiledDataAccess {
+    T crop(int x, int z, int width, int height);
+
+    T createEmpty(int width, int height);
+
+    void copyRegionInto(T destination, int srcX, int srcZ, int destX, int destZ, int width, int height);
+}
@@ -1,6 +1,10 @@
 package net.gegy1000.terrarium.server.world.pipeline.source.tile;
 
-public interface NumberRasterTile<T extends Number> extends RasterDataAccess<T> {
+public interface NumberRasterTile extends TiledDataAccess {
+    int getWidth();
+
+    int getHeight();
+
     void setDouble(int x, int y, double value);
 
     double getDouble(int x, int y);
@@ -0,0 +1,9 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public interface RasterTile<T> extends TiledDataAccess {
+    int getWidth();
+
+    int getHeight();
+
+    void copyRegionInto(T destination, int srcX, int srcZ, int destX, int destZ, int width, int height);
+}
@@ -0,0 +1,38 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+import java.nio.ShortBuffer;
+
+public class ShortBufferRasterTile implements ShortRasterAccess {
+    private final ShortBuffer data;
+    private final int width;
+    private final int height;
+
+    public ShortBufferRasterTile(ShortBuffer data, int width, int height) {
+        if (data.capacity() != width * height) {
+            throw new IllegalArgumentException("Given width and height do not match buffer capacity!");
+        }
+        this.data = data;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public short getShort(int x, int z) {
+        return this.data.get(x + z * this.width);
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return this.data.isDirect() ? 0 : (long) this.data.capacity() * Short.BYTES;
+    }
+}
@@ -0,0 +1,9 @@
+package net.gegy1000.terrarium.server.world.pipeline.source.tile;
+
+public interface ShortRasterAccess extends TiledDataAccess {
+    int getWidth();
+
+    int getHeight();
+
+    short getShort(int x, int z);
+}
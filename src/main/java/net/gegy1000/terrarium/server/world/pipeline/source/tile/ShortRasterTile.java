@@ -2,7 +2,7 @@ package net.gegy1000.terrarium.server.world.pipeline.source.tile;
 
 import net.gegy1000.terrarium.server.world.pipeline.DataView;
 
-public class ShortRasterTile implements TiledDataAccess, NumberRasterTile<Short> {
+public class ShortRasterTile implements ShortRasterAccess, RasterTile<ShortRasterTile>, CroppableTile<ShortRasterTile>, NumberRasterTile {
     private final short[] data;
     private final int width;
     private final int height;
@@ -22,38 +22,43 @@ public class ShortRasterTile implements TiledDataAccess, NumberRasterTile<Short>
         this.height = view.getHeight();
     }
 
-    @Override
-    @Deprecated
-    public void set(int x, int z, Short value) {
-        this.data[x + z * this.width] = value;
-    }
-
     public void setShort(int x, int z, short value) {
         this.data[x + z * this.width] = value;
     }
 
     @Override
-    @Deprecated
-    public Short get(int x, int z) {
-        return this.getShort(x, z);
-    }
-
     public short getShort(int x, int z) {
         return this.data[x + z * this.width];
     }
 
+    public short[] getShortData() {
+        return this.data;
+    }
+
     @Override
-    public Short[] getData() {
-        short[] data = this.getShortData();
-        Short[] result = new Short[data.length];
-        for (int i = 0; i < data.length; i++) {
-            result[i] = data[i];
+    public void copyRegionInto(ShortRasterTile destination, int srcX, int srcZ, int destX, int destZ, int width, int height) {
+        for (int localZ = 0; localZ < height; localZ++) {
+            int srcIndex = srcX + (srcZ + localZ) * this.width;
+            int destIndex = destX + (destZ + localZ) * destination.width;
+            System.arraycopy(this.data, srcIndex, destination.data, destIndex, width);
         }
+    }
+
+    @Override
+    public ShortRasterTile crop(int x, int z, int width, int height) {
+        ShortRasterTile result = new ShortRasterTile(new short[width * height], width, height);
+        this.copyRegionInto(result, x, z, 0, 0, width, height);
         return result;
     }
 
-    public short[] getShortData() {
-        return this.data;
+    @Override
+    public ShortRasterTile createEmpty(int width, int height) {
+        return new ShortRasterTile(new short[width * height], width, height);
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return (long) this.data.length * Short.BYTES;
     }
 
     @Override
@@ -1,4 +1,5 @@
 package net.gegy1000.terrarium.server.world.pipeline.source.tile;
 
 public interface TiledDataAccess {
+    long estimateMemoryUsage();
 }
@@ -1,46 +1,53 @@
 package net.gegy1000.terrarium.server.world.region;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.gegy1000.terrarium.Terrarium;
+import net.gegy1000.terrarium.server.util.cache.WeightedCache;
 import net.gegy1000.terrarium.server.world.coordinate.Coordinate;
 import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
 import net.gegy1000.terrarium.server.world.pipeline.ChunkRasterHandler;
 import net.gegy1000.terrarium.server.world.pipeline.TerrariumDataProvider;
 import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
-import net.gegy1000.terrarium.server.world.pipeline.source.tile.RasterDataAccess;
+import net.gegy1000.terrarium.server.world.pipeline.source.TiledDataSource;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.RasterTile;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class GenerationRegionHandler {
+    private static final ExecutorService WORKER_SERVICE = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), new ThreadFactoryBuilder()
+            .setNameFormat("terrarium-region-worker-%d")
+            .setDaemon(true)
+            .build());
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private static final int PREFETCH_EDGE_MARGIN = 64;
+
     private final GenerationSettings settings;
     private final TerrariumDataProvider dataSystem;
     private final ChunkRasterHandler chunkRasterHandler;
+    private final RegionDataStore dataStore;
 
     private final Coordinate bufferedRegionSize;
 
-    private final LoadingCache<RegionTilePos, GenerationRegion> cache = CacheBuilder.newBuilder()
-            .expireAfterAccess(2, TimeUnit.MINUTES)
-            .maximumSize(12)
-            .build(new CacheLoader<RegionTilePos, GenerationRegion>() {
-                @Override
-                public GenerationRegion load(RegionTilePos key) {
-                    try {
-                        return GenerationRegionHandler.this.generate(key);
-                    } catch (Exception e) {
-                        Terrarium.LOGGER.error("Failed to load generation region at {}", key, e);
-                    }
-                    return GenerationRegionHandler.this.createDefaultRegion(key);
-                }
-            });
+    private final WeightedCache<RegionTilePos, GenerationRegion> cache = new WeightedCache<>("regions", region -> region.getData().estimateMemoryUsage(), 2, TimeUnit.MINUTES);
+
+    private final Map<RegionTilePos, CompletableFuture<GenerationRegion>> inFlight = new ConcurrentHashMap<>();
 
-    public GenerationRegionHandler(GenerationSettings settings, TerrariumDataProvider dataSystem) {
+    public GenerationRegionHandler(GenerationSettings settings, TerrariumDataProvider dataSystem, @Nullable RegionDataStore dataStore) {
         this.settings = settings;
         this.dataSystem = dataSystem;
         this.chunkRasterHandler = new ChunkRasterHandler(this, dataSystem);
+        this.dataStore = dataStore;
 
         this.bufferedRegionSize = Coordinate.fromBlock(GenerationRegion.BUFFERED_SIZE, GenerationRegion.BUFFERED_SIZE);
     }
@@ -50,27 +57,129 @@ public class GenerationRegionHandler {
     }
 
     public GenerationRegion get(RegionTilePos pos) {
+        GenerationRegion region = this.cache.getIfPresent(pos);
+        if (region != null) {
+            return region;
+        }
         try {
-            return this.cache.get(pos);
+            return this.request(pos, DIRECT_EXECUTOR).get();
         } catch (ExecutionException e) {
-            Terrarium.LOGGER.error("Failed to retrieve generation region from cache at {}", pos, e);
+            Terrarium.LOGGER.error("Failed to retrieve generation region at {}", pos, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return this.createDefaultRegion(pos);
+    }
+
+    public void prefetch(RegionTilePos pos) {
+        if (this.cache.getIfPresent(pos) == null) {
+            this.request(pos, WORKER_SERVICE);
+        }
+    }
+
+    public void prefetch(int blockX, int blockZ) {
+        this.prefetch(new RegionTilePos(Math.floorDiv(blockX, GenerationRegion.SIZE), Math.floorDiv(blockZ, GenerationRegion.SIZE)));
+    }
+
+    public void prefetchNeighbours(int blockX, int blockZ) {
+        int tileX = Math.floorDiv(blockX, GenerationRegion.SIZE);
+        int tileZ = Math.floorDiv(blockZ, GenerationRegion.SIZE);
+        int localX = blockX - tileX * GenerationRegion.SIZE;
+        int localZ = blockZ - tileZ * GenerationRegion.SIZE;
+
+        int offsetX = this.getEdgeOffset(localX);
+        int offsetZ = this.getEdgeOffset(localZ);
+
+        if (offsetX != 0) {
+            this.prefetch(new RegionTilePos(tileX + offsetX, tileZ));
+        }
+        if (offsetZ != 0) {
+            this.prefetch(new RegionTilePos(tileX, tileZ + offsetZ));
+        }
+        if (offsetX != 0 && offsetZ != 0) {
+            this.prefetch(new RegionTilePos(tileX + offsetX, tileZ + offsetZ));
+        }
+    }
+
+    private int getEdgeOffset(int local) {
+        if (local < PREFETCH_EDGE_MARGIN) {
+            return -1;
+        } else if (local >= GenerationRegion.SIZE - PREFETCH_EDGE_MARGIN) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private CompletableFuture<GenerationRegion> request(RegionTilePos pos, Executor executor) {
+        CompletableFuture<GenerationRegion> future = new CompletableFuture<>();
+        CompletableFuture<GenerationRegion> existing = this.inFlight.putIfAbsent(pos, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        GenerationRegion cached = this.cache.getIfPresent(pos);
+        if (cached != null) {
+            this.inFlight.remove(pos);
+            future.complete(cached);
+            return future;
+        }
+
+        executor.execute(() -> {
+            try {
+                GenerationRegion region = this.load(pos);
+                this.cache.put(pos, region);
+                future.complete(region);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                this.inFlight.remove(pos);
+            }
+        });
+
+        return future;
+    }
+
+    private GenerationRegion load(RegionTilePos pos) {
+        try {
+            if (this.dataStore != null) {
+                GenerationRegion storedRegion = this.dataStore.load(pos);
+                if (storedRegion != null) {
+                    return storedRegion;
+                }
+            }
+            int failedLoads = TiledDataSource.getFailedLoads();
+            GenerationRegion region = this.generate(pos);
+            if (this.dataStore != null && TiledDataSource.getFailedLoads() == failedLoads) {
+                this.dataStore.save(region);
+            }
+            return region;
+        } catch (Exception e) {
+            Terrarium.LOGGER.error("Failed to load generation region at {}", pos, e);
         }
         return this.createDefaultRegion(pos);
     }
 
-    public <T extends RasterDataAccess<V>, V> void fillRaster(RegionComponentType<T> componentType, T result, int originX, int originZ, int width, int height) {
-        for (int localZ = 0; localZ < height; localZ++) {
+    public <T extends RasterTile<? super T>> void fillRaster(RegionComponentType<T> componentType, T result, int originX, int originZ, int width, int height) {
+        int localZ = 0;
+        while (localZ < height) {
             int blockZ = originZ + localZ;
+            int tileZ = Math.floorDiv(blockZ, GenerationRegion.SIZE);
+            int spanHeight = Math.min(height - localZ, (tileZ + 1) * GenerationRegion.SIZE - blockZ);
 
-            for (int localX = 0; localX < width; localX++) {
+            int localX = 0;
+            while (localX < width) {
                 int blockX = originX + localX;
+                int tileX = Math.floorDiv(blockX, GenerationRegion.SIZE);
+                int spanWidth = Math.min(width - localX, (tileX + 1) * GenerationRegion.SIZE - blockX);
 
-                GenerationRegion region = this.get(blockX, blockZ);
+                GenerationRegion region = this.get(new RegionTilePos(tileX, tileZ));
                 T dataTile = region.getData().getOrExcept(componentType);
+                dataTile.copyRegionInto(result, blockX - region.getMinX(), blockZ - region.getMinZ(), localX, localZ, spanWidth, spanHeight);
 
-                V value = dataTile.get(blockX - region.getMinX(), blockZ - region.getMinZ());
-                result.set(localX, localZ, value);
+                localX += spanWidth;
             }
+
+            localZ += spanHeight;
         }
     }
 
@@ -84,10 +193,11 @@ public class GenerationRegionHandler {
     }
 
     public void prepareChunk(int originX, int originZ) {
+        this.prefetchNeighbours(originX, originZ);
         this.chunkRasterHandler.fillRasters(originX, originZ);
     }
 
-    public <T extends RasterDataAccess<V>, V> T getCachedChunkRaster(RegionComponentType<T> componentType) {
+    public <T extends RasterTile<? super T>> T getCachedChunkRaster(RegionComponentType<T> componentType) {
         return this.chunkRasterHandler.getChunkRaster(componentType);
     }
 }
@@ -0,0 +1,77 @@
+package net.gegy1000.terrarium.server.world.region;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+public class PlayerRegionTracker {
+    private static final int UPDATE_INTERVAL = 20;
+    private static final int LOOKAHEAD_TICKS = 200;
+    private static final double MAX_TRACKED_SPEED = 64.0;
+
+    private final GenerationRegionHandler regionHandler;
+    private final Map<UUID, TrackedPlayer> trackedPlayers = new HashMap<>();
+
+    private int ticks;
+
+    public PlayerRegionTracker(GenerationRegionHandler regionHandler) {
+        this.regionHandler = regionHandler;
+    }
+
+    public void update(World world) {
+        if (this.ticks++ % UPDATE_INTERVAL != 0) {
+            return;
+        }
+
+        Iterator<Map.Entry<UUID, TrackedPlayer>> iterator = this.trackedPlayers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, TrackedPlayer> entry = iterator.next();
+            if (world.getPlayerEntityByUUID(entry.getKey()) == null) {
+                iterator.remove();
+            }
+        }
+
+        for (EntityPlayer player : world.playerEntities) {
+            TrackedPlayer tracked = this.trackedPlayers.computeIfAbsent(player.getUniqueID(), uuid -> new TrackedPlayer(player.posX, player.posZ));
+            this.prefetchAhead(tracked, player.posX, player.posZ);
+            tracked.lastX = player.posX;
+            tracked.lastZ = player.posZ;
+        }
+    }
+
+    private void prefetchAhead(TrackedPlayer tracked, double posX, double posZ) {
+        int blockX = (int) Math.floor(posX);
+        int blockZ = (int) Math.floor(posZ);
+
+        this.regionHandler.prefetch(blockX, blockZ);
+        this.regionHandler.prefetchNeighbours(blockX, blockZ);
+
+        double velocityX = (posX - tracked.lastX) / UPDATE_INTERVAL;
+        double velocityZ = (posZ - tracked.lastZ) / UPDATE_INTERVAL;
+        double speed = Math.sqrt(velocityX * velocityX + velocityZ * velocityZ);
+        if (speed < 1e-3 || speed > MAX_TRACKED_SPEED) {
+            return;
+        }
+
+        double distance = speed * LOOKAHEAD_TICKS;
+        double step = GenerationRegion.SIZE / 2.0;
+        for (double travelled = step; travelled < distance + step; travelled += step) {
+            double progress = Math.min(travelled, distance) / speed;
+            this.regionHandler.prefetch((int) Math.floor(posX + velocityX * progress), (int) Math.floor(posZ + velocityZ * progress));
+        }
+    }
+
+    private static class TrackedPlayer {
+        private double lastX;
+        private double lastZ;
+
+        private TrackedPlayer(double lastX, double lastZ) {
+            this.lastX = lastX;
+            this.lastZ = lastZ;
+        }
+    }
+}
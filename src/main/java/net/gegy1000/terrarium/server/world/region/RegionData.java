@@ -25,6 +25,14 @@ public class RegionData {
         return null;
     }
 
+    public long estimateMemoryUsage() {
+        long usage = 0;
+        for (RegionComponent<?> component : this.attachedComponents.values()) {
+            usage += component.getData().estimateMemoryUsage();
+        }
+        return usage;
+    }
+
     public <T extends TiledDataAccess> T getOrExcept(RegionComponentType<T> componentType) throws IllegalArgumentException {
         T value = this.get(componentType);
         if (value == null) {
@@ -0,0 +1,169 @@
+package net.gegy1000.terrarium.server.world.region;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.gegy1000.terrarium.Terrarium;
+import net.gegy1000.terrarium.server.world.generator.customization.GenerationSettings;
+import net.gegy1000.terrarium.server.world.pipeline.TerrariumDataProvider;
+import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponent;
+import net.gegy1000.terrarium.server.world.pipeline.component.RegionComponentType;
+import net.gegy1000.terrarium.server.world.pipeline.component.SerializableComponentType;
+import net.gegy1000.terrarium.server.world.pipeline.source.tile.TiledDataAccess;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class RegionDataStore {
+    private static final ExecutorService SAVE_SERVICE = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("terrarium-region-save").setDaemon(true).build());
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File root;
+    private final TerrariumDataProvider dataSystem;
+
+    private RegionDataStore(File root, TerrariumDataProvider dataSystem) {
+        this.root = root;
+        this.dataSystem = dataSystem;
+    }
+
+    @Nullable
+    public static RegionDataStore create(@Nullable File worldDirectory, GenerationSettings settings, TerrariumDataProvider dataSystem) {
+        if (worldDirectory == null) {
+            return null;
+        }
+        String settingsHash = Hashing.sha1().hashString(settings.serializeString(), StandardCharsets.UTF_8).toString().substring(0, 16);
+        File root = new File(worldDirectory, "terrarium/regions/" + settingsHash);
+        return new RegionDataStore(root, dataSystem);
+    }
+
+    @Nullable
+    public GenerationRegion load(RegionTilePos pos) {
+        File file = this.getFile(pos);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (input.readUnsignedByte() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int width = input.readUnsignedShort();
+            int height = input.readUnsignedShort();
+            if (width != GenerationRegion.BUFFERED_SIZE || height != GenerationRegion.BUFFERED_SIZE) {
+                return null;
+            }
+
+            Map<String, byte[]> serializedComponents = new HashMap<>();
+            int componentCount = input.readUnsignedShort();
+            for (int i = 0; i < componentCount; i++) {
+                String identifier = input.readUTF();
+                byte[] serialized = new byte[input.readInt()];
+                input.readFully(serialized);
+                serializedComponents.put(identifier, serialized);
+            }
+
+            Map<RegionComponentType<?>, RegionComponent<?>> components = new HashMap<>();
+            for (RegionComponentType<?> componentType : this.dataSystem.getAttachedComponentTypes()) {
+                if (componentType.isTransient()) {
+                    continue;
+                }
+                byte[] serialized = serializedComponents.get(componentType.getIdentifier().toString());
+                if (!(componentType instanceof SerializableComponentType)) {
+                    components.put(componentType, new RegionComponent<>(componentType, componentType.createDefaultData(width, height)));
+                } else if (serialized != null) {
+                    components.put(componentType, this.readComponent((SerializableComponentType<?>) componentType, serialized, width, height));
+                } else {
+                    return null;
+                }
+            }
+
+            return new GenerationRegion(pos, new RegionData(components));
+        } catch (IOException e) {
+            Terrarium.LOGGER.warn("Failed to load stored region at {}", pos, e);
+        } catch (RuntimeException e) {
+            Terrarium.LOGGER.warn("Discarding corrupt stored region at {}", pos, e);
+            file.delete();
+        }
+
+        return null;
+    }
+
+    public void save(GenerationRegion region) {
+        SAVE_SERVICE.submit(() -> {
+            RegionTilePos pos = region.getPos();
+            File file = this.getFile(pos);
+            if (!this.root.exists()) {
+                this.root.mkdirs();
+            }
+
+            File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+                this.writeRegion(region, output);
+            } catch (IOException e) {
+                Terrarium.LOGGER.warn("Failed to store region at {}", pos, e);
+                tempFile.delete();
+                return;
+            }
+
+            if ((file.exists() && !file.delete()) || !tempFile.renameTo(file)) {
+                Terrarium.LOGGER.warn("Failed to move stored region at {} into place", pos);
+                tempFile.delete();
+            }
+        });
+    }
+
+    private void writeRegion(GenerationRegion region, DataOutputStream output) throws IOException {
+        output.writeByte(FORMAT_VERSION);
+        output.writeShort(GenerationRegion.BUFFERED_SIZE);
+        output.writeShort(GenerationRegion.BUFFERED_SIZE);
+
+        Map<String, byte[]> serializedComponents = new HashMap<>();
+        for (RegionComponentType<?> componentType : this.dataSystem.getAttachedComponentTypes()) {
+            if (componentType instanceof SerializableComponentType) {
+                serializedComponents.put(componentType.getIdentifier().toString(), this.writeComponent((SerializableComponentType<?>) componentType, region.getData()));
+            }
+        }
+
+        output.writeShort(serializedComponents.size());
+        for (Map.Entry<String, byte[]> entry : serializedComponents.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeInt(entry.getValue().length);
+            output.write(entry.getValue());
+        }
+    }
+
+    private <T extends TiledDataAccess> byte[] writeComponent(SerializableComponentType<T> componentType, RegionData data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            componentType.write(data.getOrExcept(componentType), output);
+        }
+        return buffer.toByteArray();
+    }
+
+    private <T extends TiledDataAccess> RegionComponent<T> readComponent(SerializableComponentType<T> componentType, byte[] serialized, int width, int height) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            return new RegionComponent<>(componentType, componentType.read(input, width, height));
+        }
+    }
+
+    private File getFile(RegionTilePos pos) {
+        return new File(this.root, "r." + pos.getTileX() + "." + pos.getTileZ() + ".bin");
+    }
+}